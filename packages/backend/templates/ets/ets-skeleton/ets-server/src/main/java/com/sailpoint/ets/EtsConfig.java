@@ -3,14 +3,17 @@
  */
 package com.sailpoint.ets;
 
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.eventbridge.AmazonEventBridge;
 import com.amazonaws.services.eventbridge.AmazonEventBridgeClientBuilder;
-import com.amazonaws.services.lambda.AWSLambda;
-import com.amazonaws.services.lambda.AWSLambdaClientBuilder;
+import com.amazonaws.services.lambda.AWSLambdaAsync;
+import com.amazonaws.services.lambda.AWSLambdaAsyncClientBuilder;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sailpoint.atlas.boot.core.util.AwsEncryptionService;
 import com.sailpoint.atlas.util.AwsEncryptionServiceUtil;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
@@ -18,9 +21,11 @@ import lombok.extern.apachecommons.CommonsLog;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 /**
  * ETS Configuration.
@@ -44,10 +49,21 @@ public class EtsConfig {
 	}
 
 	@Bean
-	public AWSLambda awsLambda(Regions currentRegion) {
-		return AWSLambdaClientBuilder.standard()
-			.withRegion(currentRegion)
-			.build();
+	public AWSLambdaAsync awsLambda(Regions currentRegion, EtsProperties etsProperties) {
+		// One connection and one thread per invocation in flight, the invoker never goes beyond that
+		int maxInFlight = etsProperties.getLambdaMaxInFlight();
+		AWSLambdaAsyncClientBuilder builder = AWSLambdaAsyncClientBuilder.standard()
+			.withClientConfiguration(new ClientConfiguration().withMaxConnections(maxInFlight))
+			.withExecutorFactory(() -> Executors.newFixedThreadPool(maxInFlight,
+				new ThreadFactoryBuilder().setNameFormat("lambda-invoke-%d").setDaemon(true).build()));
+
+		if (StringUtils.hasText(etsProperties.getLambdaEndpoint())) {
+			builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(etsProperties.getLambdaEndpoint(),
+				currentRegion.getName()));
+		} else {
+			builder.withRegion(currentRegion);
+		}
+		return builder.build();
 	}
 
 	@Bean
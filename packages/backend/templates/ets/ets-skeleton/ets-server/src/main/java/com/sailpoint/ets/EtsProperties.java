@@ -43,6 +43,26 @@ public class EtsProperties {
 	 * ETS invocations lambda function name
 	 */
 	private String _lambdaNamePrefix;
+	/**
+	 * Maximum number of lambda invocations in flight per pod. Dispatching blocks while the limit is reached.
+	 */
+	private int _lambdaMaxInFlight = 200;
+	/**
+	 * Seconds a dispatch waits for an in flight lambda invocation to complete before failing.
+	 */
+	private int _lambdaAcquireTimeoutSeconds = 30;
+	/**
+	 * Number of times a failed lambda invocation is retried before the invocation is failed.
+	 */
+	private int _lambdaInvokeRetries = 2;
+	/**
+	 * Milliseconds before the first retry of a failed lambda invocation, doubled on each further retry.
+	 */
+	private long _lambdaRetryDelayMillis = 1000;
+	/**
+	 * Lambda endpoint overriding the regional one, e.g. a local fake lambda for benchmarks. Regional if empty.
+	 */
+	private String _lambdaEndpoint;
 
 	/**
 	 * File path for json triggers repo using json schemas.
@@ -58,6 +78,106 @@ public class EtsProperties {
 	 * Domain portion of the Partner Event Source URL
 	 */
 	private String _eventBridgePartnerEventSourcePrefix;
+	/**
+	 * Milliseconds partner events are collected into a batch before it is sent, unless it fills up first.
+	 */
+	private long _eventBridgeBatchWindowMillis = 50;
+	/**
+	 * Number of threads sending partner event batches.
+	 */
+	private int _eventBridgeBatchThreads = 4;
+	/**
+	 * Number of times failed partner events are sent again before the dispatch of their invocation fails.
+	 */
+	private int _eventBridgeSendRetries = 2;
+	/**
+	 * Milliseconds before failed partner events are first sent again, doubled on each further retry.
+	 */
+	private long _eventBridgeRetryDelayMillis = 200;
+	/**
+	 * Seconds a dispatch waits for its partner event to be sent before failing.
+	 */
+	private int _eventBridgeSendTimeoutSeconds = 30;
+
+	/**
+	 * Load the Avro trigger definitions, which replace the json schema definitions of the same triggers and carry
+	 * the invocation input in Avro binary form.
+	 */
+	private boolean _avroTriggersEnabled = false;
+
+	/**
+	 * Maximum number of (tenant, trigger) subscription lists cached for trigger invocation.
+	 */
+	private int _subscriptionCacheSize = 10000;
+	/**
+	 * Seconds a cached subscription list is kept. Subscription changes invalidate the cache right away, the expiry
+	 * only bounds staleness if an invalidation message is lost.
+	 */
+	private int _subscriptionCacheExpirySeconds = 300;
+	/**
+	 * Maximum number of decrypted subscription credentials and scripts cached for dispatch.
+	 */
+	private int _decryptedSubscriptionCacheSize = 10000;
+	/**
+	 * Seconds decrypted subscription material is kept in memory after it was decrypted.
+	 */
+	private int _decryptedSubscriptionCacheExpirySeconds = 900;
+
+	/**
+	 * Maximum number of (tenant, trigger feature flag) values cached.
+	 */
+	private int _featureFlagCacheSize = 10000;
+	/**
+	 * Seconds a cached trigger feature flag value is kept, i.e. how long a feature flag change may take to apply.
+	 */
+	private int _featureFlagCacheExpirySeconds = 60;
+
+	/**
+	 * Maximum number of events relayed from the event table to kafka in one transaction.
+	 */
+	private int _outboxBatchSize = 100;
+	/**
+	 * Maximum number of events of a batch published to kafka without acknowledgement.
+	 */
+	private int _outboxMaxInFlight = 100;
+	/**
+	 * Number of workers relaying events to kafka in parallel. Events of a tenant are always relayed by the same worker.
+	 */
+	private int _outboxWorkers = 4;
+	/**
+	 * Milliseconds between two polls of the event table. Polling is only a safety net for missed notifications.
+	 */
+	private long _outboxPollIntervalMillis = 60000;
+	/**
+	 * Milliseconds a notified event is left to the transaction that inserted it before the drainers relay it.
+	 */
+	private long _outboxNotificationGraceMillis = 2000;
+	/**
+	 * Milliseconds before a drainer tries again to drain a partition another pod was draining.
+	 */
+	private long _outboxContentionRetryMillis = 250;
+	/**
+	 * Minutes events are inserted into the same event table partition before rotating to the next one.
+	 */
+	private int _outboxRotationMinutes = 15;
+	/**
+	 * Milliseconds the event of an invocation dispatched in process is kept from the drainers. Should the pod die
+	 * while dispatching, the drainers relay the event through kafka once the lease is over.
+	 */
+	private long _outboxDispatchLeaseMillis = 120000;
+
+	/**
+	 * Dispatch the trigger invocations of this pod in process right after commit, instead of through kafka.
+	 */
+	private boolean _localDispatchEnabled = false;
+	/**
+	 * Number of threads dispatching invocations in process.
+	 */
+	private int _localDispatchThreads = 8;
+	/**
+	 * Maximum number of invocations queued for in process dispatch, further invocations are relayed through kafka.
+	 */
+	private int _localDispatchQueueSize = 1000;
 
 	/**
 	 * Custom configuration for Circuit Breakers.
@@ -5,7 +5,6 @@ package com.sailpoint.ets.domain.command;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableMap;
 import com.sailpoint.atlas.boot.core.web.SailPointHeaders;
 import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.Secret;
@@ -13,19 +12,14 @@ import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.event.EventPublisher;
 import com.sailpoint.ets.domain.event.TriggerWorkflowEvent;
 import com.sailpoint.ets.domain.invocation.InvocationCallbackUrlProvider;
-import com.sailpoint.ets.domain.subscription.ScriptLanguageType;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.TriggerType;
-import com.sailpoint.ets.infrastructure.aws.HttpInvocationPayload;
 import com.sailpoint.ets.infrastructure.aws.InvocationPayload;
 import com.sailpoint.ets.infrastructure.aws.Invoker;
 import com.sailpoint.ets.infrastructure.aws.MetadataPayload;
-import com.sailpoint.ets.infrastructure.aws.ScriptInvocationPayload;
+import com.sailpoint.ets.infrastructure.subscription.DecryptedSubscriptionCache;
 import com.sailpoint.ets.infrastructure.util.CamelCaseUtil;
-import com.sailpoint.ets.infrastructure.util.HTTPConfigConverter;
-import com.sailpoint.ets.infrastructure.util.ScriptConfigConverter;
-import com.sailpoint.ets.infrastructure.web.dto.HttpConfigDto;
 import com.sailpoint.ets.infrastructure.web.dto.ResponseMode;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.utils.CircuitBreakerUtil;
@@ -34,19 +28,16 @@ import lombok.NonNull;
 import lombok.Value;
 import lombok.extern.apachecommons.CommonsLog;
 
-import java.util.Base64;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.sailpoint.ets.infrastructure.util.EventBridgeConfigConverter.AWS_PARTNER_EVENT_SOURCE_NAME;
 import static com.sailpoint.ets.infrastructure.util.EventBridgeConfigConverter.AWS_REGION;
-import static com.sailpoint.ets.infrastructure.util.HTTPConfigConverter.SUBSCRIPTION_ID;
 import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportResponseMode;
 import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportTriggerType;
-import static com.sailpoint.ets.infrastructure.util.ScriptConfigConverter.LANGUAGE;
 import static com.sailpoint.ets.infrastructure.util.TriggerEventLogUtil.dispatchInvocationLog;
 import static com.sailpoint.ets.infrastructure.util.WorkflowConfigConverter.WORKFLOW_ID;
 
@@ -57,13 +48,7 @@ import static com.sailpoint.ets.infrastructure.util.WorkflowConfigConverter.WORK
 @Builder
 @CommonsLog
 public class DispatchInvocationCommand {
-	private final static String AUTHORIZATION = "Authorization";
-	private final static String BASIC = "Basic ";
-	private final static String BEARER = "Bearer ";
-	private final static String RESPONSE_MODE = "responseMode";
 	private final static String METADATA = "_metadata";
-	private final static String TRIGGER_ID = "triggerId";
-	private final static String TRIGGER_TYPE = "triggerType";
 	private final static String CALLBACK_URL = "callbackURL";
 	private final static String SECRET = "secret";
 	private final static String INVOCATION_ID = "invocationId";
@@ -75,6 +60,7 @@ public class DispatchInvocationCommand {
 	@NonNull private final Secret _secret;
 	@NonNull private final TriggerType _triggerType;
 	@NonNull private final String _subscriptionId;
+	private final Long _subscriptionVersion;
 	@NonNull private final SubscriptionType _subscriptionType;
 	@NonNull private final Map<String, Object> _subscriptionConfig;
 	@NonNull private final Map<String, String> _headers;
@@ -82,61 +68,29 @@ public class DispatchInvocationCommand {
 	private final String scriptSource;
 
 	/*
-	 * Handle Dispatch Invocation Command.
+	 * Handle Dispatch Invocation Command. Lambda invocations complete after this returns, their failure is reported
+	 * to onDispatchFailure.
 	 */
 	public void handle(Invoker invoker, InvocationCallbackUrlProvider invocationCallbackUrlProvider,
-					   EtsProperties properties, HTTPConfigConverter converter, ScriptConfigConverter scriptConfigConverter,
-					   CircuitBreaker circuitBreaker, ObjectMapper objectMapper, EventPublisher publisher, EtsFeatureStore flagEtsFeatureStore) {
+					   EtsProperties properties, DecryptedSubscriptionCache decryptedSubscriptionCache,
+					   CircuitBreaker circuitBreaker, ObjectMapper objectMapper, EventPublisher publisher, EtsFeatureStore flagEtsFeatureStore,
+					   Consumer<Exception> onDispatchFailure) {
 
 		// Check circuit breaker and make sure we can dispatch the invocation
 		CircuitBreakerUtil.isCallPermitted(circuitBreaker);
-		ResponseMode responseMode;
-		String invocationFunctionName;
-		InvocationPayload.InvocationPayloadBuilder invocationPayloadBuilder;
-		final Map<String, String> encryptionContext = Collections.singletonMap(SUBSCRIPTION_ID, _subscriptionId);
+		DispatchTemplate template;
 
-		// Build subscription type specific attributes
+		// Build subscription type specific attributes, once per subscription version
 		switch(_subscriptionType) {
 			case HTTP:
-				HttpConfigDto configDto = converter.convertToHttpConfigDto(_subscriptionConfig, encryptionContext);
-
-				invocationPayloadBuilder = HttpInvocationPayload.builder()
-					.url(configDto.getUrl())
-					.headers(getHeaders(configDto));
-
-				responseMode = configDto.getHttpDispatchMode();
-				invocationFunctionName = properties.getLambdaNamePrefix() + "http";
-
-				Map<String, String> metadataMap = new HashMap<>();
-				metadataMap.put(TRIGGER_ID, _triggerId);
-				metadataMap.put(TRIGGER_TYPE, CamelCaseUtil.toCamelCase(_triggerType));
-
-				if(_triggerType == TriggerType.FIRE_AND_FORGET){
-					metadataMap.put(INVOCATION_ID, _invocationId.toString());
-				}
-				else {
-					metadataMap.put(RESPONSE_MODE, CamelCaseUtil.toCamelCase(responseMode));
-					if(responseMode != ResponseMode.SYNC){
-						metadataMap.put(CALLBACK_URL, invocationCallbackUrlProvider.getCallbackUrl(_tenantId, _invocationId));
-						metadataMap.put(SECRET, _secret.getValue());
-					}
-				}
-
-				//adding to existing InvocationPayload
-				invocationPayloadBuilder.metadata(metadataMap);
-
+				template = decryptedSubscriptionCache.getDispatchTemplate(_tenantId, _triggerId, _subscriptionId,
+					_subscriptionType, _subscriptionVersion, () -> DispatchTemplate.forHttp(properties, _triggerId,
+						_triggerType, decryptedSubscriptionCache.decryptHttpConfig(_subscriptionId, _subscriptionConfig)));
 				break;
 			case SCRIPT:
-				if (ScriptLanguageType.valueOf(_subscriptionConfig.get(LANGUAGE).toString()) != ScriptLanguageType.JAVASCRIPT) {
-					throw new UnsupportedOperationException("unsupported script language: " + _subscriptionConfig.get(LANGUAGE).toString());
-				}
-
-				invocationPayloadBuilder = ScriptInvocationPayload.builder()
-					.scriptCode(Base64.getEncoder().encodeToString(scriptConfigConverter.decrypt(scriptSource, encryptionContext).getBytes()))
-					.headers(ImmutableMap.of(SailPointHeaders.REQUEST_ID_HEADER, _requestId));
-
-				responseMode = ResponseMode.valueOf(_subscriptionConfig.get(RESPONSE_MODE).toString());
-				invocationFunctionName = properties.getLambdaNamePrefix() + "script-js";
+				template = decryptedSubscriptionCache.getDispatchTemplate(_tenantId, _triggerId, _subscriptionId,
+					_subscriptionType, _subscriptionVersion, () -> DispatchTemplate.forScript(properties, _triggerId,
+						_triggerType, _subscriptionConfig, decryptedSubscriptionCache.decryptScriptSource(_subscriptionId, scriptSource)));
 				break;
 			case EVENTBRIDGE:
 
@@ -171,28 +125,37 @@ public class DispatchInvocationCommand {
 				throw new UnsupportedOperationException("unsupported subscription type: " + _subscriptionType);
 		}
 
-		// Add request-response specific attributes
+		// Add invocation specific attributes
+		InvocationPayload.InvocationPayloadBuilder invocationPayloadBuilder = template.newPayloadBuilder()
+			.headers(getHeaders(template));
+
+		String callbackUrl = null;
 		if(_triggerType == TriggerType.REQUEST_RESPONSE) {
+			callbackUrl = invocationCallbackUrlProvider.getCallbackUrl(_tenantId, _invocationId);
 			invocationPayloadBuilder
-				.callbackUrl(invocationCallbackUrlProvider.getCallbackUrl(_tenantId, _invocationId))
+				.callbackUrl(callbackUrl)
 				.secret(_secret.getValue())
-				.responseMode(CamelCaseUtil.toCamelCase(responseMode));
+				.responseMode(template.getCamelCaseResponseMode());
+		}
+
+		if(template.getMetadata() != null) {
+			invocationPayloadBuilder.metadata(getMetadata(template, invocationCallbackUrlProvider, callbackUrl));
 		}
 
 		// Add common attributes to payloads of all subscription types
 		invocationPayloadBuilder
 			.triggerId(_triggerId)
-			.triggerType(CamelCaseUtil.toCamelCase(_triggerType))
+			.triggerType(template.getCamelCaseTriggerType())
 			.invocationId(_invocationId.toString())
 			.input(_input);
 
 		// Dispatch invocation
 		InvocationPayload payload = invocationPayloadBuilder.build();
 		log.info(dispatchInvocationLog("Dispatching invocation to Lambda.", _subscriptionId, _subscriptionType, payload));
-		invoker.invokeLambdaFunction(invocationFunctionName, payload);
+		invoker.invokeLambdaFunction(template.getFunctionName(), payload, onDispatchFailure);
 
 		reportTriggerType(_triggerType);
-		reportResponseMode(responseMode);
+		reportResponseMode(template.getResponseMode());
 	}
 
 	private void handleWorkflowSubscriptionType(InvocationCallbackUrlProvider invocationCallbackUrlProvider, EventPublisher publisher, Invoker invoker, EtsFeatureStore flagEtsFeatureStore) {
@@ -223,32 +186,38 @@ public class DispatchInvocationCommand {
 	}
 
 	/**
-	 * Get headers for HTTP invocations
-	 * @param configDto the http config
+	 * Get headers for lambda invocations
+	 * @param template the dispatch template of the subscription
 	 * @return a map of headers
 	 */
-	private Map<String, String> getHeaders(HttpConfigDto configDto) {
-		Map<String, String> headers = new HashMap<>();
+	private Map<String, String> getHeaders(DispatchTemplate template) {
+		Map<String, String> headers = new HashMap<>(4);
 		headers.put(SailPointHeaders.REQUEST_ID_HEADER, _requestId);
-		switch(configDto.getHttpAuthenticationType()) {
-			case BASIC_AUTH:
-				String basicHeader = configDto.getBasicAuthConfig() != null ? configDto.getBasicAuthConfig().getUserName() +
-					":" + configDto.getBasicAuthConfig().getPassword() : null;
-				if(basicHeader != null) {
-					headers.put(AUTHORIZATION, BASIC
-						+ Base64.getEncoder().encodeToString(basicHeader.getBytes()));
-				}
-				break;
-			case BEARER_TOKEN:
-				String bearerHeader = configDto.getBearerTokenAuthConfig() != null ? configDto.getBearerTokenAuthConfig()
-					.getBearerToken() : null;
-				if(bearerHeader != null) {
-					headers.put(AUTHORIZATION, BEARER
-						+ bearerHeader);
-				}
-				break;
-		}
+		template.addAuthorization(headers);
 		return headers;
 	}
 
+	/**
+	 * Get metadata for HTTP invocations
+	 * @param template the dispatch template of the subscription
+	 * @param invocationCallbackUrlProvider the callback URL provider
+	 * @param callbackUrl the callback URL of the invocation, null if not computed yet
+	 * @return the static metadata of the subscription with the invocation specific metadata added
+	 */
+	private Map<String, String> getMetadata(DispatchTemplate template,
+											InvocationCallbackUrlProvider invocationCallbackUrlProvider, String callbackUrl) {
+		Map<String, String> metadata = new HashMap<>(8);
+		metadata.putAll(template.getMetadata());
+
+		if(_triggerType == TriggerType.FIRE_AND_FORGET){
+			metadata.put(INVOCATION_ID, _invocationId.toString());
+		}
+		else if(template.getResponseMode() != ResponseMode.SYNC){
+			metadata.put(CALLBACK_URL, callbackUrl != null ? callbackUrl :
+				invocationCallbackUrlProvider.getCallbackUrl(_tenantId, _invocationId));
+			metadata.put(SECRET, _secret.getValue());
+		}
+		return metadata;
+	}
+
 }
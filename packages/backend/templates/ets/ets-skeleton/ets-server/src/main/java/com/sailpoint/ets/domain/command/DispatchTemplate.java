@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.command;
+
+import com.google.common.collect.ImmutableMap;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.subscription.ScriptLanguageType;
+import com.sailpoint.ets.domain.trigger.TriggerType;
+import com.sailpoint.ets.infrastructure.aws.HttpInvocationPayload;
+import com.sailpoint.ets.infrastructure.aws.InvocationPayload;
+import com.sailpoint.ets.infrastructure.aws.ScriptInvocationPayload;
+import com.sailpoint.ets.infrastructure.util.CamelCaseUtil;
+import com.sailpoint.ets.infrastructure.web.dto.HttpConfigDto;
+import com.sailpoint.ets.infrastructure.web.dto.ResponseMode;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static com.sailpoint.ets.infrastructure.util.ScriptConfigConverter.LANGUAGE;
+import static com.sailpoint.ets.infrastructure.util.ScriptConfigConverter.RESPONSE_MODE;
+
+/**
+ * The parts of a lambda invocation that only depend on the subscription: function name, response mode, URL and
+ * authorization header of HTTP subscriptions, encoded code of SCRIPT subscriptions and the static invocation metadata.
+ * Built once per subscription version, so that dispatch only adds the invocation specific attributes.
+ *
+ * Holds decrypted credentials, it must never be logged or persisted.
+ */
+@Value
+@Builder
+public class DispatchTemplate {
+	private final static String AUTHORIZATION = "Authorization";
+	private final static String BASIC = "Basic ";
+	private final static String BEARER = "Bearer ";
+	private final static String TRIGGER_ID = "triggerId";
+	private final static String TRIGGER_TYPE = "triggerType";
+	private final static String RESPONSE_MODE_METADATA = "responseMode";
+
+	@NonNull private final String _functionName;
+	@NonNull private final String _triggerId;
+	@NonNull private final String _camelCaseTriggerType;
+	@NonNull private final ResponseMode _responseMode;
+	@NonNull private final String _camelCaseResponseMode;
+	private final String _url;
+	private final String _authorization;
+	private final String _scriptCode;
+	private final Map<String, String> _metadata;
+
+	/**
+	 * Build the template of an HTTP subscription.
+	 * @param properties the ETS properties.
+	 * @param triggerId the trigger ID.
+	 * @param triggerType the trigger type.
+	 * @param configDto the HTTP config of the subscription, with its credentials decrypted.
+	 * @return the template.
+	 */
+	public static DispatchTemplate forHttp(EtsProperties properties, String triggerId, TriggerType triggerType,
+										   HttpConfigDto configDto) {
+		String camelCaseTriggerType = CamelCaseUtil.toCamelCase(triggerType);
+		ResponseMode responseMode = configDto.getHttpDispatchMode();
+
+		ImmutableMap.Builder<String, String> metadata = ImmutableMap.<String, String>builder()
+			.put(TRIGGER_ID, triggerId)
+			.put(TRIGGER_TYPE, camelCaseTriggerType);
+		if (triggerType != TriggerType.FIRE_AND_FORGET) {
+			metadata.put(RESPONSE_MODE_METADATA, CamelCaseUtil.toCamelCase(responseMode));
+		}
+
+		return DispatchTemplate.builder()
+			.functionName(properties.getLambdaNamePrefix() + "http")
+			.triggerId(triggerId)
+			.camelCaseTriggerType(camelCaseTriggerType)
+			.responseMode(responseMode)
+			.camelCaseResponseMode(CamelCaseUtil.toCamelCase(responseMode))
+			.url(configDto.getUrl())
+			.authorization(getAuthorization(configDto))
+			.metadata(metadata.build())
+			.build();
+	}
+
+	/**
+	 * Build the template of a SCRIPT subscription.
+	 * @param properties the ETS properties.
+	 * @param triggerId the trigger ID.
+	 * @param triggerType the trigger type.
+	 * @param scriptConfig the script config of the subscription.
+	 * @param scriptSource the decrypted script source.
+	 * @return the template.
+	 */
+	public static DispatchTemplate forScript(EtsProperties properties, String triggerId, TriggerType triggerType,
+											 Map<String, Object> scriptConfig, String scriptSource) {
+		if (ScriptLanguageType.valueOf(scriptConfig.get(LANGUAGE).toString()) != ScriptLanguageType.JAVASCRIPT) {
+			throw new UnsupportedOperationException("unsupported script language: " + scriptConfig.get(LANGUAGE).toString());
+		}
+		ResponseMode responseMode = ResponseMode.valueOf(scriptConfig.get(RESPONSE_MODE).toString());
+
+		return DispatchTemplate.builder()
+			.functionName(properties.getLambdaNamePrefix() + "script-js")
+			.triggerId(triggerId)
+			.camelCaseTriggerType(CamelCaseUtil.toCamelCase(triggerType))
+			.responseMode(responseMode)
+			.camelCaseResponseMode(CamelCaseUtil.toCamelCase(responseMode))
+			.scriptCode(Base64.getEncoder().encodeToString(scriptSource.getBytes()))
+			.build();
+	}
+
+	/**
+	 * Start a payload builder of the subscription type, holding the subscription specific attributes.
+	 * @return the payload builder.
+	 */
+	public InvocationPayload.InvocationPayloadBuilder newPayloadBuilder() {
+		if (_scriptCode != null) {
+			return ScriptInvocationPayload.builder()
+				.scriptCode(_scriptCode);
+		}
+		return HttpInvocationPayload.builder()
+			.url(_url);
+	}
+
+	/**
+	 * Add the authorization header of the subscription, if any, to the headers of an invocation.
+	 * @param headers the invocation headers.
+	 */
+	public void addAuthorization(Map<String, String> headers) {
+		if (_authorization != null) {
+			headers.put(AUTHORIZATION, _authorization);
+		}
+	}
+
+	/**
+	 * Get the authorization header value of an HTTP config.
+	 * @param configDto the http config
+	 * @return the header value, null if the config has no credentials.
+	 */
+	private static String getAuthorization(HttpConfigDto configDto) {
+		switch(configDto.getHttpAuthenticationType()) {
+			case BASIC_AUTH:
+				if (configDto.getBasicAuthConfig() == null) {
+					return null;
+				}
+				String basicHeader = configDto.getBasicAuthConfig().getUserName() + ":" +
+					configDto.getBasicAuthConfig().getPassword();
+				return BASIC + Base64.getEncoder().encodeToString(basicHeader.getBytes());
+			case BEARER_TOKEN:
+				String bearerHeader = configDto.getBearerTokenAuthConfig() != null ? configDto.getBearerTokenAuthConfig()
+					.getBearerToken() : null;
+				return bearerHeader != null ? BEARER + bearerHeader : null;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Keep decrypted credentials and code out of logs.
+	 */
+	@Override
+	public String toString() {
+		return "DispatchTemplate(functionName=" + _functionName + ", triggerId=" + _triggerId + ")";
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.command;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.event.EventPublisher;
+import com.sailpoint.ets.domain.event.InvocationFailedEvent;
+import com.sailpoint.ets.domain.invocation.Invocation;
+import com.sailpoint.ets.domain.invocation.InvocationRepo;
+import com.sailpoint.ets.service.breaker.CircuitBreakerService;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.apachecommons.CommonsLog;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportInvocationComplete;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportTotalInvocationTime;
+import static com.sailpoint.ets.infrastructure.util.TriggerEventLogUtil.logInvocationFailedEvent;
+
+/**
+ * FailDispatchedInvocationCommand, fails an invocation whose dispatch failed after its dispatch command returned.
+ */
+@Value
+@Builder
+@CommonsLog
+public class FailDispatchedInvocationCommand {
+
+	@NonNull private final TenantId _tenantId;
+	@NonNull private final String _triggerId;
+	@NonNull private final UUID _invocationId;
+	@NonNull private final Exception _error;
+
+	/**
+	 * Fail a request response invocation right away, instead of at its deadline, and count the failure against the
+	 * circuit breaker of the trigger. Fire and forget invocations are not stored, their failure is only logged.
+	 *
+	 * @param invocationRepo The InvocationRepo implementation.
+	 * @param eventPublisher The EventPublisher implementation.
+	 * @param circuitBreakerService The CircuitBreakerService implementation.
+	 */
+	public void handle(InvocationRepo invocationRepo, EventPublisher eventPublisher,
+					   CircuitBreakerService circuitBreakerService) {
+		Optional<Invocation> invocation = invocationRepo.findById(_invocationId)
+			.filter(i -> i.getTenantId().equals(_tenantId));
+
+		Duration duration = invocation
+			.map(i -> Duration.between(i.getCreated(), OffsetDateTime.now()))
+			.orElse(Duration.ZERO);
+		circuitBreakerService.getCircuitBreaker(_tenantId.toString() + "_" + _triggerId)
+			.onError(duration.toNanos(), TimeUnit.NANOSECONDS, _error);
+
+		if (!invocation.isPresent()) {
+			log.error("Invocation " + _invocationId + " of trigger " + _triggerId + " dropped, its dispatch failed");
+			return;
+		}
+
+		InvocationFailedEvent event = invocation.get().newFailedEvent("dispatch failed: " + _error.getMessage());
+		eventPublisher.publish(event);
+
+		reportTotalInvocationTime(invocation.get(), true);
+		reportInvocationComplete(true);
+		log.error(logInvocationFailedEvent(event));
+
+		invocationRepo.delete(invocation.get());
+	}
+}
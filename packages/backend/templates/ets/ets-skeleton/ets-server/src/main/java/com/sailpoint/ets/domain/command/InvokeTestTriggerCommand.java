@@ -3,7 +3,8 @@
  */
 package com.sailpoint.ets.domain.command;
 
-import com.sailpoint.atlas.util.JsonPathUtil;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.event.EventPublisher;
@@ -12,7 +13,8 @@ import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.invocation.InvocationRepo;
 import com.sailpoint.ets.domain.status.InvocationType;
 import com.sailpoint.ets.domain.subscription.Subscription;
-import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.TriggerId;
@@ -20,7 +22,6 @@ import com.sailpoint.ets.domain.trigger.TriggerRepo;
 import com.sailpoint.ets.exception.NotFoundException;
 import com.sailpoint.ets.infrastructure.util.WebUtil;
 import com.sailpoint.utilities.JsonUtil;
-import com.sailpoint.utilities.StringUtil;
 import lombok.Builder;
 import lombok.Value;
 import lombok.extern.apachecommons.CommonsLog;
@@ -63,9 +64,10 @@ public class InvokeTestTriggerCommand {
 	/*
 	 * Handle Invoke Test Trigger.
 	 */
-	public List<Invocation> handle(TriggerRepo triggerRepo, SubscriptionRepo subscriptionRepo,
+	public List<Invocation> handle(TriggerRepo triggerRepo, SubscriptionCache subscriptionCache,
 								   InvocationRepo invocationRepo, EventPublisher eventPublisher,
-								   EtsProperties properties, EtsFeatureStore etsFeatureStore) {
+								   EtsProperties properties, EtsFeatureStore etsFeatureStore,
+								   SubscriptionFilterEngine filterEngine) {
 
 		Trigger trigger = triggerRepo.findById(_triggerId)
 				.orElseThrow(() -> new NotFoundException("trigger", _triggerId.toString()));
@@ -76,7 +78,17 @@ public class InvokeTestTriggerCommand {
 			return Collections.emptyList();
 		}
 
-		return subscriptionRepo.findAllByTenantIdAndTriggerId(_tenantId, _triggerId)
+		Map<String, Object> input = _input.isPresent() ? _input.get() : trigger.getExampleInput();
+
+		// Validate and sanitize the input at most once, the result is shared by every matching subscription
+		Supplier<Map<String, Object>> sanitizedInput = Suppliers.memoize(() -> trigger.processInput(input));
+
+		List<Subscription> subscriptions = subscriptionCache.findAllByTenantIdAndTriggerId(_tenantId, _triggerId);
+
+		// Match the input against the filters of all the subscriptions at once
+		SubscriptionFilterEngine.FilterInput filterInput = filterEngine.prepare(_tenantId, _triggerId, subscriptions, input);
+
+		return subscriptions.stream()
 			.filter(subscription -> {
 				if (_subscriptionIds.isPresent()) {
 					return _subscriptionIds.get().contains(subscription.getId());
@@ -86,10 +98,8 @@ public class InvokeTestTriggerCommand {
 			})
 			.map(subscription -> {
 
-					Map<String, Object> input = _input.isPresent() ? _input.get() : trigger.getExampleInput();
-
 					try {
-						if (StringUtil.isNotNullOrEmpty(subscription.getFilter()) && !JsonPathUtil.isPathExist(JsonUtil.toJson(input), subscription.getFilter())) {
+						if (!filterInput.matches(subscription)) {
 							log.info("Invocation skipped because subscription '" + subscription.getId() + "' has filter " + subscription.getFilter());
 							return null;
 						}
@@ -98,7 +108,8 @@ public class InvokeTestTriggerCommand {
 						return null;
 					}
 
-					Invocation invocation = invokeTrigger(trigger, properties, subscription, invocationRepo, input);
+					Map<String, Object> invocationInput = sanitizedInput.get();
+					Invocation invocation = invokeTrigger(trigger, properties, subscription, invocationRepo);
 
 					TriggerInvokedEvent event = TriggerInvokedEvent.builder()
 						.tenantId(_tenantId.toString())
@@ -111,9 +122,8 @@ public class InvokeTestTriggerCommand {
 						.subscriptionId(subscription.getId().toString())
 						.subscriptionName(subscription.getName())
 						.subscriptionType(subscription.getType())
-						.subscriptionConfig(subscription.getConfig())
-						.scriptSource(subscription.getScriptSource())
-						.input(input)
+						.subscriptionVersion(subscription.getVersion())
+						.input(invocationInput)
 						.context(_context)
 						.headers(_headers)
 						.build();
@@ -131,14 +141,14 @@ public class InvokeTestTriggerCommand {
 	}
 
 	private Invocation invokeTrigger(Trigger trigger, EtsProperties properties,
-									 Subscription subscription, InvocationRepo invocationRepo, Map input) {
+									 Subscription subscription, InvocationRepo invocationRepo) {
 		Invocation invocation;
 		if (trigger.getType() == REQUEST_RESPONSE) {
-			invocation = trigger.invoke(subscription, input, _context,
+			invocation = trigger.invoke(subscription, _context,
 				properties.getDeadlineMinutes(), InvocationType.TEST);
 			invocationRepo.save(invocation);
 		} else {
-			invocation = trigger.invoke(subscription, input, _context,
+			invocation = trigger.invoke(subscription, _context,
 				Integer.MIN_VALUE, InvocationType.TEST);
 		}
 		return invocation;
@@ -3,7 +3,8 @@
  */
 package com.sailpoint.ets.domain.command;
 
-import com.sailpoint.atlas.util.JsonPathUtil;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.event.EventPublisher;
@@ -12,14 +13,14 @@ import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.invocation.InvocationRepo;
 import com.sailpoint.ets.domain.status.InvocationType;
 import com.sailpoint.ets.domain.subscription.Subscription;
-import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerRepo;
 import com.sailpoint.ets.exception.NotFoundException;
 import com.sailpoint.utilities.JsonUtil;
-import com.sailpoint.utilities.StringUtil;
 import lombok.Builder;
 import lombok.Value;
 import lombok.extern.apachecommons.CommonsLog;
@@ -28,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.sailpoint.ets.domain.trigger.TriggerType.REQUEST_RESPONSE;
@@ -52,9 +54,10 @@ public class InvokeTriggerCommand {
 	/*
 	 * Handle Invoke Trigger.
 	 */
-	public List<Invocation> handle(TriggerRepo triggerRepo, SubscriptionRepo subscriptionRepo,
+	public List<Invocation> handle(TriggerRepo triggerRepo, SubscriptionCache subscriptionCache,
 								   InvocationRepo invocationRepo, EventPublisher eventPublisher,
-								   EtsProperties properties, EtsFeatureStore etsFeatureStore) {
+								   EtsProperties properties, EtsFeatureStore etsFeatureStore,
+								   SubscriptionFilterEngine filterEngine) {
 
 		Trigger trigger = triggerRepo.findById(_triggerId)
 				.orElseThrow(() -> new NotFoundException("trigger", _triggerId.toString()));
@@ -65,7 +68,17 @@ public class InvokeTriggerCommand {
 			return Collections.emptyList();
 		}
 
-		return subscriptionRepo.findAllByTenantIdAndTriggerId(_tenantId, _triggerId)
+		// Validate and sanitize the input at most once, the result is shared by every matching subscription
+		Supplier<Map<String, Object>> input = Suppliers.memoize(() -> trigger.processInput(_input));
+		// Triggers with a binary input schema carry the input encoded, the encoding is shared as well
+		Supplier<Optional<String>> encodedInput = Suppliers.memoize(() -> trigger.encodeInput(input.get()));
+
+		List<Subscription> subscriptions = subscriptionCache.findAllByTenantIdAndTriggerId(_tenantId, _triggerId);
+
+		// Match the input against the filters of all the subscriptions at once
+		SubscriptionFilterEngine.FilterInput filterInput = filterEngine.prepare(_tenantId, _triggerId, subscriptions, _input);
+
+		return subscriptions.stream()
 			.map(
 				subscription -> {
 					if (!subscription.isEnabled()) {
@@ -74,7 +87,7 @@ public class InvokeTriggerCommand {
 					}
 
 					try {
-						if (StringUtil.isNotNullOrEmpty(subscription.getFilter()) && !JsonPathUtil.isPathExist(JsonUtil.toJson(_input), subscription.getFilter())) {
+						if (!filterInput.matches(subscription)) {
 							log.info("Invocation skipped because subscription '" + subscription.getId() + "' has filter " + subscription.getFilter());
 							return null;
 						}
@@ -83,6 +96,8 @@ public class InvokeTriggerCommand {
 						return null;
 					}
 
+					Map<String, Object> sanitizedInput = input.get();
+					Optional<String> encoded = encodedInput.get();
 					Invocation invocation = invokeTrigger(trigger, properties, subscription, invocationRepo);
 
 					TriggerInvokedEvent event = TriggerInvokedEvent.builder()
@@ -96,9 +111,9 @@ public class InvokeTriggerCommand {
 						.subscriptionId(subscription.getId().toString())
 						.subscriptionName(subscription.getName())
 						.subscriptionType(subscription.getType())
-						.subscriptionConfig(subscription.getConfig())
-						.scriptSource(subscription.getScriptSource())
-						.input(_input)
+						.subscriptionVersion(subscription.getVersion())
+						.input(encoded.isPresent() ? null : sanitizedInput)
+						.encodedInput(encoded.orElse(null))
 						.context(_context)
 						.headers(_headers)
 						.build();
@@ -119,11 +134,11 @@ public class InvokeTriggerCommand {
 									 Subscription subscription, InvocationRepo invocationRepo) {
 		Invocation invocation;
 		if (trigger.getType() == REQUEST_RESPONSE) {
-			invocation = trigger.invoke(subscription, _input, _context,
+			invocation = trigger.invoke(subscription, _context,
 				properties.getDeadlineMinutes(), InvocationType.REAL_TIME);
 			invocationRepo.save(invocation);
 		} else {
-			invocation = trigger.invoke(subscription, _input, _context,
+			invocation = trigger.invoke(subscription, _context,
 				Integer.MIN_VALUE, InvocationType.REAL_TIME);
 		}
 		return invocation;
@@ -29,7 +29,7 @@ public class UnsubscribeCommand {
 	@NonNull private final TenantId _tenantId;
 	@NonNull private final UUID _subscriptionId;
 
-	public void handle(SubscriptionRepo subscriptionRepo, EventBridge eventBridge) {
+	public Subscription handle(SubscriptionRepo subscriptionRepo, EventBridge eventBridge) {
 		Subscription subscription = subscriptionRepo.findById(_subscriptionId)
 				.orElse(null);
 
@@ -44,5 +44,7 @@ public class UnsubscribeCommand {
 		}
 
 		subscriptionRepo.deleteById(subscription.getId());
+
+		return subscription;
 	}
 }
@@ -29,9 +29,20 @@ public class TriggerInvokedEvent implements DomainEvent {
 	private final String _subscriptionId;
 	private final String _subscriptionName;
 	private final SubscriptionType _subscriptionType;
+	/**
+	 * Version of the subscription at invocation, handlers resolve its config and script by ID and version.
+	 */
+	private final Long _subscriptionVersion;
+	/**
+	 * Only carried by events published before the subscription version, like the subscription config.
+	 */
 	private final String scriptSource;
 	private final Map<String, Object> _subscriptionConfig;
 	private final Map<String, Object> _input;
+	/**
+	 * Input in the binary form of the trigger input schema, Base64 encoded. Set instead of the input.
+	 */
+	private final String _encodedInput;
 	private final Map<String, Object> _context;
 	private final Map<String, String> _headers;
 
@@ -11,7 +11,9 @@ import com.sailpoint.ets.domain.event.InvocationFailedEvent;
 import com.sailpoint.ets.domain.event.InvocationFailedTestEvent;
 import com.sailpoint.ets.domain.status.InvocationType;
 import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vladmihalcea.hibernate.type.json.JsonStringType;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,12 +21,16 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
 import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
@@ -38,7 +44,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @TypeDef(name="json", typeClass= JsonStringType.class)
-public class Invocation {
+public class Invocation implements Persistable<UUID> {
 
 	@Id
 	@Type(type="pg-uuid")
@@ -70,6 +76,28 @@ public class Invocation {
 	@Enumerated(EnumType.STRING)
 	private InvocationType type;
 
+	/**
+	 * Invocation IDs are assigned, without this saving a new invocation would select it first to merge it.
+	 */
+	@Transient
+	@Getter(AccessLevel.NONE)
+	private boolean persisted;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markPersisted() {
+		persisted = true;
+	}
+
 	/**
 	 * Generate InvocationFailedEvent.
 	 * @param reason error string.
@@ -0,0 +1,19 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.subscription;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Trigger that a tenant has at least one enabled subscription to
+ */
+@Data
+@AllArgsConstructor
+public class SubscribedTrigger {
+	private TenantId tenantId;
+	private TriggerId triggerId;
+}
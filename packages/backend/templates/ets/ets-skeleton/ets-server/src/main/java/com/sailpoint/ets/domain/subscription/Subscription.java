@@ -22,6 +22,7 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Map;
@@ -77,6 +78,13 @@ public class Subscription {
 	@Column(name="enabled")
 	private boolean enabled;
 
+	/**
+	 * Optimistic lock, incremented by every update. Concurrent updates fail instead of both claiming the same version.
+	 */
+	@Version
+	@Column(name="version")
+	private long version;
+
 	public Invocation createInvocation(Map<String, Object> context, int deadline, InvocationType type) {
 		long duration = deadline;
 		if(deadline != Integer.MIN_VALUE && responseDeadline != null) {
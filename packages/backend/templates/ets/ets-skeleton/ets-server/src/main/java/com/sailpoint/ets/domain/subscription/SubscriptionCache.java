@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.subscription;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of the subscriptions a trigger invocation is routed to.
+ */
+public interface SubscriptionCache {
+
+	/**
+	 * Find all the subscriptions of the tenant to the trigger.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 * @return unmodifiable list of the subscriptions. Entries must not be modified.
+	 */
+	List<Subscription> findAllByTenantIdAndTriggerId(TenantId tenantId, TriggerId triggerId);
+
+	/**
+	 * Find a subscription by ID, at the given version or any later one.
+	 * @param tenantId the tenant ID.
+	 * @param id the subscription ID.
+	 * @param minVersion the oldest acceptable version of the subscription.
+	 * @return the subscription, empty if it no longer exists. It must not be modified.
+	 */
+	Optional<Subscription> findByTenantIdAndId(TenantId tenantId, UUID id, long minVersion);
+
+	/**
+	 * Invalidate the subscriptions of the tenant to the trigger on all the ETS instances, once the current
+	 * transaction (if any) commits.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 */
+	void invalidate(TenantId tenantId, TriggerId triggerId);
+
+	/**
+	 * Invalidate all the subscriptions of the tenant on all the ETS instances, once the current transaction
+	 * (if any) commits.
+	 * @param tenantId the tenant ID.
+	 */
+	void invalidate(TenantId tenantId);
+}
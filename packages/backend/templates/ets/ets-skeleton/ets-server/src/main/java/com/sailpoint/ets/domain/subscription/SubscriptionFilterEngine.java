@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.subscription;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Engine evaluating the {@link Subscription#getFilter() filter} of subscriptions against trigger input.
+ */
+public interface SubscriptionFilterEngine {
+
+	/**
+	 * Check if the filter is a valid expression.
+	 * @param filter the filter expression.
+	 * @return true if the filter can be compiled. False otherwise.
+	 */
+	boolean isValid(String filter);
+
+	/**
+	 * Evaluate a standalone filter, one that does not (yet) belong to a subscription, against the input.
+	 * @param filter the filter expression.
+	 * @param input the trigger input.
+	 * @return true if the input matches the filter. False otherwise.
+	 * @throws RuntimeException if the filter is invalid or could not be evaluated against the input.
+	 */
+	boolean matches(String filter, Map<String, Object> input);
+
+	/**
+	 * Match the input of a single event against the filters of the subscriptions of a trigger.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 * @param subscriptions all the subscriptions of the tenant to the trigger.
+	 * @param input the trigger input.
+	 * @return the input matched against the filters.
+	 */
+	FilterInput prepare(TenantId tenantId, TriggerId triggerId, Collection<Subscription> subscriptions, Map<String, Object> input);
+
+	/**
+	 * Trigger input matched against the filters of subscriptions.
+	 */
+	interface FilterInput {
+
+		/**
+		 * Match the input against the filter of the subscription. Subscriptions without a filter always match.
+		 * @param subscription one of the subscriptions the input was prepared for.
+		 * @return true if the input matches the filter of the subscription. False otherwise.
+		 * @throws RuntimeException if the filter is invalid or could not be evaluated against the input.
+		 */
+		boolean matches(Subscription subscription);
+	}
+}
@@ -9,8 +9,10 @@ import com.sailpoint.ets.domain.trigger.TriggerId;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -29,4 +31,12 @@ public interface SubscriptionRepo extends PagingAndSortingRepository<Subscriptio
 
 	@Query("select new com.sailpoint.ets.domain.status.SubscriptionStatus(s.tenantId, s.type, count(s)) from Subscription s group by s.tenantId, s.type")
 	Stream<SubscriptionStatus> findAllSubscriptionCounts();
+
+	boolean existsByTenantIdAndTriggerIdAndEnabledTrue(TenantId tenantId, TriggerId triggerId);
+
+	@Query("select distinct new com.sailpoint.ets.domain.subscription.SubscribedTrigger(s.tenantId, s.triggerId) from Subscription s where s.enabled = true")
+	List<SubscribedTrigger> findAllSubscribedTriggers();
+
+	@Query("select distinct new com.sailpoint.ets.domain.subscription.SubscribedTrigger(s.tenantId, s.triggerId) from Subscription s where s.enabled = true and s.tenantId = :tenantId")
+	List<SubscribedTrigger> findAllSubscribedTriggersByTenantId(@Param("tenantId") TenantId tenantId);
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.trigger;
+
+import com.sailpoint.ets.exception.ValidationException;
+import com.sailpoint.utilities.JsonUtil;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Schema backed by an Avro schema. Input is validated by encoding it with the schema and decoding it back with a
+ * reader compiled once per trigger, which also drops all the data not defined in the schema. The encoded form is the
+ * compact binary representation of the input.
+ */
+public class AvroSchema implements Schema {
+
+	private final org.apache.avro.Schema _avroSchema;
+	private final GenericDatumWriter<Object> _writer;
+	private final GenericDatumReader<Object> _reader;
+
+	public AvroSchema(Map<String, Object> schema) {
+		_avroSchema = new org.apache.avro.Schema.Parser().parse(JsonUtil.toJson(schema));
+		_writer = new GenericDatumWriter<>(_avroSchema);
+		_reader = new GenericDatumReader<>(_avroSchema);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void processData(Map<String, Object> input) {
+		Map<String, Object> sanitized = sanitizeData(input);
+		input.clear();
+		input.putAll(sanitized);
+	}
+
+	/**
+	 * Validate the input data and drop all the data not defined in the Avro schema. The input is left untouched.
+	 * @param input the data for processing.
+	 * @return unmodifiable copy of the input holding only the data defined in the Avro schema.
+	 */
+	@Override
+	public Map<String, Object> sanitizeData(Map<String, Object> input) {
+		return decode(encode(input).get());
+	}
+
+	/**
+	 * Validate input map.
+	 * @param input input map.
+	 * @return GenericRecord.
+	 */
+	@Override
+	public Object validate(Map<String, Object> input) {
+		try {
+			return toAvro(_avroSchema, input);
+		} catch (Exception e) {
+			throw new ValidationException(_avroSchema.getFullName(), JsonUtil.toJson(input), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void validateData(Map<String, Object> input) {
+		validate(input);
+	}
+
+	/**
+	 * Encode the input in Avro binary form.
+	 * @param data the data to encode.
+	 * @return the encoded data, always present.
+	 */
+	@Override
+	public Optional<byte[]> encode(Map<String, Object> data) {
+		Object record = validate(data);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+		try {
+			_writer.write(record, encoder);
+			encoder.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return Optional.of(out.toByteArray());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> decode(byte[] data) {
+		BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, null);
+		try {
+			return (Map<String, Object>)fromAvro(_reader.read(null, decoder));
+		} catch (IOException | AvroRuntimeException e) {
+			throw new ValidationException(_avroSchema.getFullName(), null, e);
+		}
+	}
+
+	/**
+	 * Convert plain JSON data, as parsed from events or requests, into the Avro generic representation of the schema.
+	 * @param schema the schema of the value.
+	 * @param value the value.
+	 * @return the Avro generic value.
+	 */
+	private static Object toAvro(org.apache.avro.Schema schema, Object value) {
+		switch (schema.getType()) {
+			case RECORD:
+				Map<String, Object> map = cast(Map.class, value, schema);
+				GenericData.Record record = new GenericData.Record(schema);
+				for (org.apache.avro.Schema.Field field : schema.getFields()) {
+					Object fieldValue = map.get(field.name());
+					if (fieldValue == null && field.hasDefaultValue()) {
+						record.put(field.pos(), GenericData.get().getDefaultValue(field));
+					} else {
+						record.put(field.pos(), toAvro(field.schema(), fieldValue));
+					}
+				}
+				return record;
+			case ARRAY:
+				Collection<Object> items = cast(Collection.class, value, schema);
+				List<Object> array = new ArrayList<>(items.size());
+				for (Object item : items) {
+					array.add(toAvro(schema.getElementType(), item));
+				}
+				return new GenericData.Array<>(schema, array);
+			case MAP:
+				Map<String, Object> entries = cast(Map.class, value, schema);
+				Map<String, Object> avroMap = new LinkedHashMap<>();
+				entries.forEach((k, v) -> avroMap.put(k, toAvro(schema.getValueType(), v)));
+				return avroMap;
+			case UNION:
+				for (org.apache.avro.Schema branch : schema.getTypes()) {
+					try {
+						return toAvro(branch, value);
+					} catch (IllegalArgumentException e) {
+						// try the next branch
+					}
+				}
+				throw mismatch(schema, value);
+			case ENUM:
+				String symbol = cast(String.class, value, schema);
+				if (!schema.hasEnumSymbol(symbol)) {
+					throw mismatch(schema, value);
+				}
+				return new GenericData.EnumSymbol(schema, symbol);
+			case STRING:
+				return cast(CharSequence.class, value, schema).toString();
+			case BYTES:
+				return ByteBuffer.wrap(cast(String.class, value, schema).getBytes(StandardCharsets.UTF_8));
+			case INT:
+				long intValue = toLong(schema, value);
+				if (intValue != (int)intValue) {
+					throw mismatch(schema, value);
+				}
+				return (int)intValue;
+			case LONG:
+				return toLong(schema, value);
+			case FLOAT:
+				return cast(Number.class, value, schema).floatValue();
+			case DOUBLE:
+				return cast(Number.class, value, schema).doubleValue();
+			case BOOLEAN:
+				return cast(Boolean.class, value, schema);
+			case NULL:
+				if (value != null) {
+					throw mismatch(schema, value);
+				}
+				return null;
+			default:
+				throw new IllegalArgumentException("Unsupported Avro type " + schema.getType());
+		}
+	}
+
+	/**
+	 * Convert a decoded Avro generic value back into plain JSON data.
+	 * @param value the Avro generic value.
+	 * @return the plain value.
+	 */
+	private static Object fromAvro(Object value) {
+		if (value instanceof GenericRecord) {
+			GenericRecord record = (GenericRecord)value;
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (org.apache.avro.Schema.Field field : record.getSchema().getFields()) {
+				map.put(field.name(), fromAvro(record.get(field.pos())));
+			}
+			return Collections.unmodifiableMap(map);
+		} else if (value instanceof GenericArray || value instanceof Collection) {
+			List<Object> list = new ArrayList<>();
+			for (Object item : (Collection<?>)value) {
+				list.add(fromAvro(item));
+			}
+			return Collections.unmodifiableList(list);
+		} else if (value instanceof Map) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			((Map<?, ?>)value).forEach((k, v) -> map.put(k.toString(), fromAvro(v)));
+			return Collections.unmodifiableMap(map);
+		} else if (value instanceof CharSequence || value instanceof GenericEnumSymbol) {
+			return value.toString();
+		} else if (value instanceof ByteBuffer) {
+			ByteBuffer buffer = ((ByteBuffer)value).duplicate();
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		return value;
+	}
+
+	private static long toLong(org.apache.avro.Schema schema, Object value) {
+		Number number = cast(Number.class, value, schema);
+		// JSON parsers hand out whole numbers as doubles
+		if (number.doubleValue() != Math.rint(number.doubleValue())) {
+			throw mismatch(schema, value);
+		}
+		return number.longValue();
+	}
+
+	private static <T> T cast(Class<?> type, Object value, org.apache.avro.Schema schema) {
+		if (!type.isInstance(value)) {
+			throw mismatch(schema, value);
+		}
+		return (T)value;
+	}
+
+	private static IllegalArgumentException mismatch(org.apache.avro.Schema schema, Object value) {
+		return new IllegalArgumentException("Value " + value + " does not match Avro type " + schema.getType());
+	}
+
+	@Override
+	public String toString() {
+		return _avroSchema.getFullName();
+	}
+}
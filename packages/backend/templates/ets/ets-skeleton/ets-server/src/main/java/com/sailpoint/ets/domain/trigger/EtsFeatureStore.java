@@ -17,6 +17,11 @@ public interface EtsFeatureStore {
 	 */
 	boolean isEnabledForTenant(TriggerId triggerId);
 
+	/**
+	 * Discard any feature flag value cached for the tenant in request context, so the next check reads it again.
+	 */
+	void refresh();
+
 	/**
 	 * Returns the feature store key based on trigger Id.
 	 *
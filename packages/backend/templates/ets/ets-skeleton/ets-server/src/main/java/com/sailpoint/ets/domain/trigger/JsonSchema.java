@@ -18,11 +18,23 @@ import com.sailpoint.metrics.prometheus.PrometheusMetricsUtils;
 
 
 import java.util.Map;
+import java.util.Optional;
 
 @CommonsLog
 public class JsonSchema implements Schema {
+	private static final String DTO_PACKAGE_PREFIX = "com.sailpoint.ets.domain.trigger.schemaGeneratedDto.";
+
+	/**
+	 * Shared mapper for converting input into generated DTOs. ObjectMapper is thread-safe once configured,
+	 * so a single instance is reused across all schemas and invocations.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
 	public final org.everit.json.schema.Schema _jsonSchema;
 	private final String _dtoClassPath;
+	private final JavaType _dtoType;
+	private final JsonSchemaProjection _projection;
+	private final String _schemaLabel;
 	static final String[] labelKeys = {"json_schema", "org", "pod", "success"};
 	public static final String METRIC_NAME = "json_schema_trigger_validation";
 	public static final String desc = "Exception thrown while parsing ets trigger payload as with json schema";
@@ -31,6 +43,22 @@ public class JsonSchema implements Schema {
 	public JsonSchema(Map<String, Object> schema, String dtoClassPath) {
 		_dtoClassPath = dtoClassPath;
 		_jsonSchema = SchemaLoader.load(new JSONObject(new JSONTokener(new Gson().toJsonTree(schema).getAsJsonObject().toString())));
+		_dtoType = resolveDtoType(dtoClassPath);
+		_projection = JsonSchemaProjection.compile(MAPPER, _dtoType);
+		_schemaLabel = dtoClassPath.replace(DTO_PACKAGE_PREFIX, "").split("\\.")[0];
+	}
+
+	/**
+	 * Resolve the generated DTO class once, when the trigger is loaded, instead of on every validation.
+	 * @param dtoClassPath fully qualified name of the generated DTO.
+	 * @return the Jackson type of the DTO.
+	 */
+	private static JavaType resolveDtoType(String dtoClassPath) {
+		try {
+			return MAPPER.constructType(Class.forName(dtoClassPath));
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Generated DTO class not found: " + dtoClassPath, e);
+		}
 	}
 
 	/**
@@ -51,18 +79,26 @@ public class JsonSchema implements Schema {
 	 * @param input the data for processing.
 	 */
 	public void processData(Map<String, Object> input) {
+		Map<String, Object> sanitized = sanitizeData(input);
+		input.clear();
+		input.putAll(sanitized);
+	}
+
+	/**
+	 * Validate the input data with json schema and project it onto the properties defined in the schema.
+	 * The input is left untouched.
+	 * @param input the data for processing.
+	 * @return unmodifiable copy of the input holding only the data defined in json schema.
+	 */
+	public Map<String, Object> sanitizeData(Map<String, Object> input) {
 		try {
 			//validate schema against input
 			_jsonSchema.validate(new JSONObject(input));
 
-			//parse input into dto to drop out sensitives
-			Object dto = validate(input);
-
-			//parse back to map to reset the input
-			ObjectMapper mapper = new ObjectMapper();
-			input.clear();
-			input.putAll(mapper.convertValue(dto, Map.class));
+			//project input onto the generated dto properties to drop out sensitives
+			Map<String, Object> sanitized = _projection.project(input);
 			logValidationException(true);
+			return sanitized;
 
 		} catch (Exception e) {
 			logValidationException(false);
@@ -72,7 +108,7 @@ public class JsonSchema implements Schema {
 
 	public void logValidationException(boolean didParse) {
 		String[] labelVals = {
-			_dtoClassPath.replace("com.sailpoint.ets.domain.trigger.schemaGeneratedDto.", "").split("\\.")[0],
+			_schemaLabel,
 			RequestContext.get().map(RequestContext::getOrg).get(),
 			RequestContext.get().map(RequestContext::getPod).get(),
 			String.valueOf(didParse)
@@ -101,17 +137,32 @@ public class JsonSchema implements Schema {
 	 */
 	public Object validate(Map<String, Object> input) {
 		// NOTE: this doesn't actually do any validation and needs a refactor --ESR 12/17/2021
-		String inputJson = JsonUtil.toJson(input);
 		try {
-			ObjectMapper mapper = new ObjectMapper();
-			JavaType valueType = mapper.constructType(Class.forName(_dtoClassPath));
-			return mapper.readValue(inputJson, valueType);
-
+			// convertValue buffers tokens directly from the map, no intermediate JSON string is built
+			return MAPPER.convertValue(input, _dtoType);
 		} catch (Exception e) {
-			throw new ValidationException(_jsonSchema.getTitle(), inputJson, e);
+			throw new ValidationException(_jsonSchema.getTitle(), JsonUtil.toJson(input), e);
 		}
 	}
 
+	/**
+	 * Json schema has no binary form, the data is carried as JSON.
+	 * @param data the data to encode.
+	 * @return always empty.
+	 */
+	@Override
+	public Optional<byte[]> encode(Map<String, Object> data) {
+		return Optional.empty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> decode(byte[] data) {
+		throw new UnsupportedOperationException("Json schema has no binary form");
+	}
+
 	@Override
 	public String toString() {
 		return _jsonSchema.getId();
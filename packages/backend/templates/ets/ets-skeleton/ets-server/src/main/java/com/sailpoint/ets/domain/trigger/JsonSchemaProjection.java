@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.trigger;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection of trigger data onto the properties declared by a schema generated DTO.
+ *
+ * The property tree is compiled once from the DTO type. Projecting walks the input a single time and
+ * emits a fresh, unmodifiable structure that only holds the declared properties, which is the same
+ * result as reading the input into the DTO and converting it back to a map.
+ */
+class JsonSchemaProjection {
+
+	private final Map<String, Property> _properties = new LinkedHashMap<>();
+	private boolean _skipNulls;
+
+	private JsonSchemaProjection() {
+	}
+
+	/**
+	 * Compile the projection for a generated DTO type.
+	 * @param mapper mapper used to introspect the DTO.
+	 * @param type the DTO type.
+	 * @return the compiled projection.
+	 */
+	static JsonSchemaProjection compile(ObjectMapper mapper, JavaType type) {
+		return compile(mapper, type, new HashMap<>());
+	}
+
+	private static JsonSchemaProjection compile(ObjectMapper mapper, JavaType type, Map<Class<?>, JsonSchemaProjection> compiled) {
+		JsonSchemaProjection existing = compiled.get(type.getRawClass());
+		if (existing != null) {
+			return existing;
+		}
+
+		JsonSchemaProjection projection = new JsonSchemaProjection();
+		compiled.put(type.getRawClass(), projection);
+
+		// Defaults of the DTO (e.g. empty lists) are emitted for properties missing from the input
+		Map<String, Object> defaults = mapper.convertValue(mapper.convertValue(Collections.emptyMap(), type), Map.class);
+
+		BeanDescription description = mapper.getSerializationConfig().introspect(type);
+		JsonInclude.Include inclusion = description.findPropertyInclusion(JsonInclude.Value.empty()).getValueInclusion();
+		projection._skipNulls = inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS;
+
+		for (BeanPropertyDefinition definition : description.findProperties()) {
+			if (!definition.couldSerialize()) {
+				continue;
+			}
+			JavaType propertyType = definition.getPrimaryType();
+			JavaType elementType = propertyType.isCollectionLikeType() ? propertyType.getContentType() : null;
+			JavaType valueType = elementType != null ? elementType : propertyType;
+			ValueKind kind = ValueKind.of(valueType);
+
+			projection._properties.put(definition.getName(), new Property(
+				elementType != null,
+				kind,
+				kind == ValueKind.OBJECT ? compile(mapper, valueType, compiled) : null,
+				immutableCopy(defaults.get(definition.getName()))));
+		}
+
+		return projection;
+	}
+
+	/**
+	 * Project the input onto the declared properties.
+	 * @param input the (already schema validated) input.
+	 * @return unmodifiable map holding only the declared properties.
+	 */
+	Map<String, Object> project(Map<String, Object> input) {
+		Map<String, Object> result = new LinkedHashMap<>(_properties.size() * 2);
+		for (Map.Entry<String, Property> entry : _properties.entrySet()) {
+			Property property = entry.getValue();
+			Object value = input.containsKey(entry.getKey()) ?
+				property.project(input.get(entry.getKey())) : property._defaultValue;
+			if (value != null || !_skipNulls) {
+				result.put(entry.getKey(), value);
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Create an unmodifiable deep copy of a generic (not declared by the DTO) value.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object immutableCopy(Object value) {
+		if (value instanceof Map) {
+			Map<Object, Object> copy = new LinkedHashMap<>();
+			((Map<Object, Object>) value).forEach((k, v) -> copy.put(k, immutableCopy(v)));
+			return Collections.unmodifiableMap(copy);
+		} else if (value instanceof List) {
+			List<Object> copy = new ArrayList<>(((List<Object>) value).size());
+			((List<Object>) value).forEach(v -> copy.add(immutableCopy(v)));
+			return Collections.unmodifiableList(copy);
+		}
+		return value;
+	}
+
+	/**
+	 * How a single value of a property is projected.
+	 */
+	private enum ValueKind {
+		/**
+		 * Nested generated DTO.
+		 */
+		OBJECT,
+		/**
+		 * Floating point number, generated DTOs declare JSON numbers as Double.
+		 */
+		DOUBLE,
+		/**
+		 * Strings, booleans, enums and untyped values are copied as they are.
+		 */
+		VALUE;
+
+		static ValueKind of(JavaType type) {
+			Class<?> raw = type.getRawClass();
+			if (raw == Double.class || raw == double.class) {
+				return DOUBLE;
+			}
+			if (raw.isPrimitive() || raw.isEnum() || raw.isArray() || type.isContainerType() || raw.getName().startsWith("java.")) {
+				return VALUE;
+			}
+			return OBJECT;
+		}
+	}
+
+	/**
+	 * A compiled DTO property.
+	 */
+	private static class Property {
+		private final boolean _list;
+		private final ValueKind _kind;
+		private final JsonSchemaProjection _nested;
+		private final Object _defaultValue;
+
+		Property(boolean list, ValueKind kind, JsonSchemaProjection nested, Object defaultValue) {
+			_list = list;
+			_kind = kind;
+			_nested = nested;
+			_defaultValue = defaultValue;
+		}
+
+		@SuppressWarnings("unchecked")
+		Object project(Object value) {
+			if (value == null || !_list) {
+				return projectValue(value);
+			}
+			if (!(value instanceof List)) {
+				throw new IllegalArgumentException("expected array but found " + value.getClass().getSimpleName());
+			}
+			List<Object> values = (List<Object>) value;
+			List<Object> result = new ArrayList<>(values.size());
+			for (Object element : values) {
+				result.add(projectValue(element));
+			}
+			return Collections.unmodifiableList(result);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object projectValue(Object value) {
+			if (value == null) {
+				return null;
+			}
+			switch (_kind) {
+				case OBJECT:
+					if (!(value instanceof Map)) {
+						throw new IllegalArgumentException("expected object but found " + value.getClass().getSimpleName());
+					}
+					return _nested.project((Map<String, Object>) value);
+				case DOUBLE:
+					return value instanceof Number ? ((Number) value).doubleValue() : value;
+				default:
+					return immutableCopy(value);
+			}
+		}
+	}
+}
@@ -1,10 +1,26 @@
 package com.sailpoint.ets.domain.trigger;
 
 import java.util.Map;
+import java.util.Optional;
 
 public interface Schema {
 
 	void processData(Map<String, Object> input);
+	Map<String, Object> sanitizeData(Map<String, Object> input);
 	Object validate(Map<String, Object> input);
 	void validateData(Map<String, Object> input);
+
+	/**
+	 * Encode sanitized data in the compact binary form of the schema.
+	 * @param data the data to encode.
+	 * @return the encoded data, empty if the schema has no binary form.
+	 */
+	Optional<byte[]> encode(Map<String, Object> data);
+
+	/**
+	 * Decode data encoded by {@link #encode(Map)}.
+	 * @param data the encoded data.
+	 * @return unmodifiable decoded data.
+	 */
+	Map<String, Object> decode(byte[] data);
 }
@@ -12,8 +12,10 @@ import lombok.NonNull;
 import lombok.extern.apachecommons.CommonsLog;
 
 import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Trigger
@@ -53,11 +55,42 @@ public class Trigger {
 
 	private final Map<String, Object> _exampleOutput;
 
-	public Invocation invoke(Subscription subscription, Map<String, Object> input, Map<String, Object> context, int deadline, InvocationType type) {
-		_inputSchemaObject.processData(input);
+	public Invocation invoke(Subscription subscription, Map<String, Object> context, int deadline, InvocationType type) {
 		return subscription.createInvocation(context, deadline, type);
 	}
 
+	/**
+	 * Validate the input against the input schema and strip all data not defined in the schema.
+	 * Meant to be called once per event, the result is shared by all invocations of the event.
+	 *
+	 * @param input the trigger input
+	 * @return unmodifiable sanitized copy of the input
+	 */
+	public Map<String, Object> processInput(Map<String, Object> input) {
+		return _inputSchemaObject.sanitizeData(input);
+	}
+
+	/**
+	 * Encode sanitized input in the binary form of the input schema, for transport.
+	 *
+	 * @param input the sanitized trigger input
+	 * @return the Base64 encoded input, empty if the input schema has no binary form
+	 */
+	public Optional<String> encodeInput(Map<String, Object> input) {
+		return _inputSchemaObject.encode(input)
+			.map(data -> Base64.getEncoder().encodeToString(data));
+	}
+
+	/**
+	 * Decode input encoded by {@link #encodeInput(Map)}.
+	 *
+	 * @param encodedInput the Base64 encoded input
+	 * @return unmodifiable decoded input
+	 */
+	public Map<String, Object> decodeInput(String encodedInput) {
+		return _inputSchemaObject.decode(Base64.getDecoder().decode(encodedInput));
+	}
+
 	public void validateOutput(Map<String, Object> output) {
 		_outputSchemaObject.processData(output);
 	}
@@ -3,67 +3,206 @@
  */
 package com.sailpoint.ets.infrastructure.aws;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.eventbridge.AmazonEventBridge;
 import com.amazonaws.services.eventbridge.model.CreatePartnerEventSourceRequest;
 import com.amazonaws.services.eventbridge.model.CreatePartnerEventSourceResult;
 import com.amazonaws.services.eventbridge.model.DeletePartnerEventSourceRequest;
-import com.amazonaws.services.eventbridge.model.PutPartnerEventsRequest;
-import com.amazonaws.services.eventbridge.model.PutPartnerEventsRequestEntry;
-import com.amazonaws.services.eventbridge.model.PutPartnerEventsResult;
-import com.amazonaws.services.lambda.AWSLambda;
+import com.amazonaws.services.lambda.AWSLambdaAsync;
 import com.amazonaws.services.lambda.model.InvocationType;
 import com.amazonaws.services.lambda.model.InvokeRequest;
 import com.amazonaws.services.lambda.model.InvokeResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sailpoint.atlas.idn.RestClientProvider;
+import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.exception.ValidationException;
+import com.sailpoint.ets.infrastructure.aws.PayloadBufferPool.PayloadBuffer;
 import com.sailpoint.metrics.annotation.Metered;
 import com.sailpoint.utilities.JsonUtil;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportLambdaInvocation;
 
 /**
  * A composed invoker used in dispatch invocation
  */
 @Component
 @CommonsLog
-@RequiredArgsConstructor(onConstructor_={@Autowired})
 public class Invoker implements EventBridge {
-	private final AWSLambda _awsLambda;
+	private static final String METADATA = "_metadata";
+
+	private final AWSLambdaAsync _awsLambda;
 	private final LoadingCache<String, AmazonEventBridge> _regionalEventBridge;
 	private final RestClientProvider _restClientProvider;
+	private final PartnerEventBatcher _partnerEventBatcher;
+	private final Semaphore _lambdaInFlight;
+	private final PayloadBufferPool _payloadBuffers;
+	private final int _lambdaAcquireTimeoutSeconds;
+	private final int _eventBridgeSendTimeoutSeconds;
+	private final int _lambdaInvokeRetries;
+	private final long _lambdaRetryDelayMillis;
+	private final ScheduledExecutorService _retries;
+
+	@Autowired
+	public Invoker(AWSLambdaAsync awsLambda, LoadingCache<String, AmazonEventBridge> regionalEventBridge,
+				   RestClientProvider restClientProvider, PartnerEventBatcher partnerEventBatcher, EtsProperties properties,
+				   ObjectMapper objectMapper) {
+		_awsLambda = awsLambda;
+		_regionalEventBridge = regionalEventBridge;
+		_restClientProvider = restClientProvider;
+		_partnerEventBatcher = partnerEventBatcher;
+		_lambdaInFlight = new Semaphore(properties.getLambdaMaxInFlight());
+		_payloadBuffers = new PayloadBufferPool(properties.getLambdaMaxInFlight(), objectMapper);
+		_lambdaAcquireTimeoutSeconds = properties.getLambdaAcquireTimeoutSeconds();
+		_eventBridgeSendTimeoutSeconds = properties.getEventBridgeSendTimeoutSeconds();
+		_lambdaInvokeRetries = properties.getLambdaInvokeRetries();
+		_lambdaRetryDelayMillis = properties.getLambdaRetryDelayMillis();
+		_retries = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setNameFormat("lambda-retry-%d").setDaemon(true).build());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		_retries.shutdownNow();
+	}
 
 	/**
-	 * Invoke Aws lambda function
+	 * Invoke Aws lambda function without waiting for its response, the result is logged once it comes in. Blocks
+	 * while the maximum number of invocations is in flight, which holds back the consumer dispatching them.
+	 * A failed invocation is retried a few times with backoff, still counting as in flight, before being reported
+	 * as failed.
 	 * @param name the name of the lambda function
 	 * @param payload the payload to be sent to lambda
+	 * @param onFailure called with the error once the invocation failed for good, from an AWS client thread
 	 */
 	@Metered
-	public void invokeLambdaFunction(String name, Object payload) {
-		InvokeRequest req = new InvokeRequest()
+	public void invokeLambdaFunction(String name, Object payload, Consumer<Exception> onFailure) {
+		try {
+			if (!_lambdaInFlight.tryAcquire(_lambdaAcquireTimeoutSeconds, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Too many lambda invocations in flight to invoke " + name);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting to invoke " + name, e);
+		}
+
+		// Only the ID outlives the dispatch, the payload itself is referenced by its buffer until completion
+		String invocationId = getInvocationId(payload);
+		PayloadBuffer buffer = null;
+		long start = System.nanoTime();
+		try {
+			buffer = _payloadBuffers.write(payload);
+			InvokeRequest req = new InvokeRequest()
 				.withFunctionName(name)
 				.withInvocationType(InvocationType.Event)
-				.withPayload(JsonUtil.toJson(payload));
+				.withPayload(buffer.toByteBuffer());
 
-		InvokeResult result = _awsLambda.invoke(req);
+			submit(req, buffer, invocationId, onFailure, 0, start);
+		} catch (RuntimeException e) {
+			// Not submitted, the handler is never called
+			if (buffer != null) {
+				_payloadBuffers.release(buffer);
+			}
+			_lambdaInFlight.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Submit a lambda invocation, whose in flight slot and payload buffer are held until it completes.
+	 * @param req the invoke request.
+	 * @param buffer the payload buffer of the request.
+	 * @param invocationId the invocation ID, for logging.
+	 * @param onFailure called once the invocation failed for good.
+	 * @param attempt number of the attempts that failed before this one.
+	 * @param start nano time the invocation was dispatched at.
+	 */
+	private void submit(InvokeRequest req, PayloadBuffer buffer, String invocationId, Consumer<Exception> onFailure,
+						int attempt, long start) {
+		_awsLambda.invokeAsync(req, new AsyncHandler<InvokeRequest, InvokeResult>() {
+			@Override
+			public void onError(Exception exception) {
+				reportLambdaInvocation("error", System.nanoTime() - start);
+				if (attempt < _lambdaInvokeRetries) {
+					log.warn(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch failed, retrying.", invocationId,
+						ImmutableMap.of("error", String.valueOf(exception.getMessage()), "attempt", String.valueOf(attempt + 1)))));
+					retry(req, buffer, invocationId, onFailure, attempt + 1);
+					return;
+				}
+
+				complete(buffer);
+				log.error(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch failed.", invocationId,
+					ImmutableMap.of("error", String.valueOf(exception.getMessage())))), exception);
+				onFailure.accept(exception);
+			}
+
+			@Override
+			public void onSuccess(InvokeRequest request, InvokeResult result) {
+				complete(buffer);
+				reportLambdaInvocation(result.getStatusCode().toString(), System.nanoTime() - start);
+
+				Map<String, String> extraLogs = ImmutableMap.of("statusCode", result.getStatusCode().toString());
+				if (HttpStatus.valueOf(result.getStatusCode()).is2xxSuccessful()) {
+					log.info(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch succeeded.", invocationId, extraLogs)));
+				} else {
+					log.error(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch failed.", invocationId, extraLogs)));
+					onFailure.accept(new IllegalStateException("Lambda invocation returned status " + result.getStatusCode()));
+				}
+			}
+		});
+	}
 
-		Map<String, String> extraLogs = ImmutableMap.of("statusCode", result.getStatusCode().toString());
-		if (HttpStatus.valueOf(result.getStatusCode()).is2xxSuccessful()) {
-			log.info(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch succeeded.", payload, extraLogs)));
-		} else {
-			log.error(JsonUtil.toJson(buildInvocationResultLog("Lambda invocation dispatch failed.", payload, extraLogs)));
+	/**
+	 * Submit a failed lambda invocation again once its backoff delay is over.
+	 */
+	private void retry(InvokeRequest req, PayloadBuffer buffer, String invocationId, Consumer<Exception> onFailure,
+					   int attempt) {
+		long delay = _lambdaRetryDelayMillis << (attempt - 1);
+		try {
+			_retries.schedule(() -> {
+				try {
+					// The SDK reads the payload from its position, rewind it for the new attempt
+					req.setPayload(buffer.toByteBuffer());
+					submit(req, buffer, invocationId, onFailure, attempt, System.nanoTime());
+				} catch (RuntimeException e) {
+					complete(buffer);
+					onFailure.accept(e);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} catch (RuntimeException e) {
+			complete(buffer);
+			onFailure.accept(e);
 		}
 	}
 
 	/**
-	 * Send an EventBridge event to partner's event source
+	 * Free the in flight slot and payload buffer of a completed lambda invocation. The SDK is done with the payload,
+	 * retries included, once the handler is called.
+	 */
+	private void complete(PayloadBuffer buffer) {
+		_payloadBuffers.release(buffer);
+		_lambdaInFlight.release();
+	}
+
+	/**
+	 * Send an EventBridge event to partner's event source. The event is sent in a batch with the other events of
+	 * the event source, this waits until the batch is sent so that the invocation is only acknowledged once delivered.
 	 * @param region The region where the event source is created
 	 * @param source The name of the event source
 	 * @param detailType The detail type of the event
@@ -71,49 +210,49 @@ public class Invoker implements EventBridge {
 	 */
 	@Metered
 	public void sendPartnerEvent(String region, String source, String detailType, Object payload) {
-		String pay = JsonUtil.toJson(payload);
-		PutPartnerEventsRequest req = new PutPartnerEventsRequest()
-			.withEntries(new PutPartnerEventsRequestEntry()
-				.withSource(source)
-				.withDetailType(detailType)
-				.withDetail(pay));
-
-		AmazonEventBridge amazonEventBridge;
 		try {
-			amazonEventBridge= _regionalEventBridge.get(region);
+			_partnerEventBatcher.add(region, source, detailType, payload)
+				.get(_eventBridgeSendTimeoutSeconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted sending partner event to " + source, e);
 		} catch (ExecutionException e) {
-			throw new IllegalArgumentException("Failed to get event bridge client", e);
-		}
-
-		PutPartnerEventsResult result = amazonEventBridge.putPartnerEvents(req);
-
-		if (result.getFailedEntryCount() == 0) {
-			log.info(JsonUtil.toJson(buildInvocationResultLog("Event bridge invocation dispatch succeeded.",
-				payload, ImmutableMap.of("eventBridgeEventId", result.getEntries().get(0).getEventId()))));
-		} else {
-			log.warn(JsonUtil.toJson(buildInvocationResultLog("Event bridge invocation dispatch failed.",
-				payload, ImmutableMap.of("eventBridgeErrorMessage", result.getEntries().get(0).getErrorMessage()))));
+			throw new IllegalStateException("Failed to send partner event to " + source, e.getCause());
+		} catch (TimeoutException e) {
+			throw new IllegalStateException("Timed out sending partner event to " + source, e);
 		}
 	}
 
 	/**
-	 * Sanitized map used for logging
+	 * Sanitized map used for logging, carrying the invocation ID only
 	 *
 	 * @param message Log message
-	 * @param payload Trigger invocation payload
+	 * @param invocationId Trigger invocation ID
 	 * @param extraLogs Extra logs to be appended
 	 * @return Log as a Map to be serialized to JSON
 	 */
-	private static Map<String, String> buildInvocationResultLog(String message, Object payload, Map<String, String> extraLogs) {
-		String invocationId = payload instanceof InvocationPayload ?
-			((InvocationPayload) payload).getInvocationId() : "unreadable";
-
-		Map<String, String> baseLog = ImmutableMap.of(
-			"message", message,
-			"invocationId", invocationId
-		);
+	static Map<String, String> buildInvocationResultLog(String message, String invocationId, Map<String, String> extraLogs) {
+		return ImmutableMap.<String, String>builder()
+			.put("message", message)
+			.put("invocationId", invocationId)
+			.putAll(extraLogs)
+			.build();
+	}
 
-		return ImmutableMap.<String, String>builder().putAll(baseLog).putAll(extraLogs).build();
+	/**
+	 * Get the invocation ID of a payload
+	 *
+	 * @param payload Trigger invocation payload
+	 * @return the invocation ID, "unreadable" if the payload has none
+	 */
+	static String getInvocationId(Object payload) {
+		if (payload instanceof InvocationPayload) {
+			return String.valueOf(((InvocationPayload) payload).getInvocationId());
+		} else if (payload instanceof Map && ((Map<?, ?>) payload).get(METADATA) instanceof Map) {
+			// Partner event input, with the invocation metadata added by dispatch
+			return String.valueOf(((Map<?, ?>) ((Map<?, ?>) payload).get(METADATA)).get("invocationId"));
+		}
+		return "unreadable";
 	}
 
 	/**
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.aws;
+
+import com.amazonaws.services.eventbridge.AmazonEventBridge;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsRequest;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsRequestEntry;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsResult;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsResultEntry;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.utilities.JsonUtil;
+import lombok.Value;
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.sailpoint.ets.infrastructure.aws.Invoker.buildInvocationResultLog;
+import static com.sailpoint.ets.infrastructure.aws.Invoker.getInvocationId;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportPartnerEventBatch;
+
+/**
+ * Collects the partner events sent to each (region, partner event source) into PutPartnerEvents batches. A batch
+ * is sent once it reaches the entry or size limit of the API, or once the batch window since its first event ends.
+ * Entries that fail are retried with backoff in a batch of their own, and each event completes once it is sent or
+ * failed for good, so that its sender only moves on once it is delivered.
+ */
+@Component
+@CommonsLog
+public class PartnerEventBatcher {
+
+	/**
+	 * Maximum number of entries of a PutPartnerEvents request.
+	 */
+	static final int MAX_ENTRIES = 20;
+
+	/**
+	 * Maximum total size of the entries of a PutPartnerEvents request.
+	 */
+	static final int MAX_BYTES = 256 * 1024;
+
+	private final LoadingCache<String, AmazonEventBridge> _regionalEventBridge;
+	private final long _windowMillis;
+	private final int _retries;
+	private final long _retryDelayMillis;
+	private final ScheduledExecutorService _senders;
+	private final Map<BatchKey, Batch> _batches = new HashMap<>();
+
+	@Autowired
+	public PartnerEventBatcher(LoadingCache<String, AmazonEventBridge> regionalEventBridge, EtsProperties properties) {
+		_regionalEventBridge = regionalEventBridge;
+		_windowMillis = properties.getEventBridgeBatchWindowMillis();
+		_retries = properties.getEventBridgeSendRetries();
+		_retryDelayMillis = properties.getEventBridgeRetryDelayMillis();
+		_senders = Executors.newScheduledThreadPool(properties.getEventBridgeBatchThreads(),
+			new ThreadFactoryBuilder().setNameFormat("partner-event-sender-%d").setDaemon(true).build());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		List<List<PendingEvent>> batches = new ArrayList<>();
+		synchronized (_batches) {
+			_batches.forEach((key, batch) -> batches.add(batch.drain()));
+			_batches.clear();
+		}
+		batches.stream().filter(events -> !events.isEmpty()).forEach(this::send);
+		_senders.shutdown();
+	}
+
+	/**
+	 * Add a partner event to the batch of its region and event source.
+	 * @param region The region where the event source is created
+	 * @param source The name of the event source
+	 * @param detailType The detail type of the event
+	 * @param payload The event body
+	 * @return completes once the event is sent, exceptionally once it failed for good.
+	 */
+	public CompletableFuture<Void> add(String region, String source, String detailType, Object payload) {
+		String detail = JsonUtil.toJson(payload);
+		PendingEvent event = new PendingEvent(region,
+			new PutPartnerEventsRequestEntry()
+				.withSource(source)
+				.withDetailType(detailType)
+				.withDetail(detail),
+			getInvocationId(payload),
+			utf8Length(source) + utf8Length(detailType) + utf8Length(detail),
+			new CompletableFuture<>());
+
+		BatchKey key = new BatchKey(region, source);
+		List<PendingEvent> full = null;
+		List<PendingEvent> last = null;
+		synchronized (_batches) {
+			Batch batch = _batches.computeIfAbsent(key, k -> new Batch());
+			if (batch.getBytes() + event.getBytes() > MAX_BYTES) {
+				full = batch.drain();
+			}
+
+			batch.add(event);
+			if (batch.size() == 1) {
+				batch.setFlush(_senders.schedule(() -> flush(key), _windowMillis, TimeUnit.MILLISECONDS));
+			} else if (batch.size() >= MAX_ENTRIES) {
+				last = batch.drain();
+			}
+		}
+
+		submit(full);
+		submit(last);
+		return event.getSent();
+	}
+
+	/**
+	 * Send the batch of the region and event source once its window ends.
+	 */
+	private void flush(BatchKey key) {
+		List<PendingEvent> events;
+		synchronized (_batches) {
+			Batch batch = _batches.remove(key);
+			events = batch == null ? null : batch.drain();
+		}
+		if (events != null && !events.isEmpty()) {
+			send(events);
+		}
+	}
+
+	private void submit(List<PendingEvent> events) {
+		if (events != null && !events.isEmpty()) {
+			_senders.execute(() -> send(events));
+		}
+	}
+
+	void send(List<PendingEvent> events) {
+		send(events, 0);
+	}
+
+	/**
+	 * Send a batch in one PutPartnerEvents request, and log the outcome of every event. Result entries are in the
+	 * order of the request entries.
+	 * @param events the events of the batch.
+	 * @param attempt number of the attempts that failed before this one.
+	 */
+	private void send(List<PendingEvent> events, int attempt) {
+		long start = System.nanoTime();
+		PutPartnerEventsRequest req = new PutPartnerEventsRequest()
+			.withEntries(events.stream().map(PendingEvent::getEntry).collect(Collectors.toList()));
+
+		PutPartnerEventsResult result;
+		try {
+			result = _regionalEventBridge.get(events.get(0).getRegion()).putPartnerEvents(req);
+		} catch (Exception e) {
+			reportPartnerEventBatch(events.size(), events.size(), System.nanoTime() - start);
+			for (PendingEvent event : events) {
+				log.warn(JsonUtil.toJson(buildInvocationResultLog("Event bridge invocation dispatch failed.",
+					event.getInvocationId(), ImmutableMap.of("eventBridgeErrorMessage", String.valueOf(e.getMessage())))), e);
+			}
+			retryOrFail(events, attempt, e);
+			return;
+		}
+
+		reportPartnerEventBatch(events.size(), result.getFailedEntryCount(), System.nanoTime() - start);
+		List<PendingEvent> failed = new ArrayList<>();
+		String errorMessage = null;
+		for (int i = 0; i < events.size(); i++) {
+			PutPartnerEventsResultEntry entry = result.getEntries().get(i);
+			if (entry.getEventId() != null) {
+				log.info(JsonUtil.toJson(buildInvocationResultLog("Event bridge invocation dispatch succeeded.",
+					events.get(i).getInvocationId(), ImmutableMap.of("eventBridgeEventId", entry.getEventId()))));
+				events.get(i).getSent().complete(null);
+			} else {
+				log.warn(JsonUtil.toJson(buildInvocationResultLog("Event bridge invocation dispatch failed.",
+					events.get(i).getInvocationId(), ImmutableMap.of("eventBridgeErrorMessage", String.valueOf(entry.getErrorMessage())))));
+				failed.add(events.get(i));
+				errorMessage = entry.getErrorCode() + ": " + entry.getErrorMessage();
+			}
+		}
+		if (!failed.isEmpty()) {
+			retryOrFail(failed, attempt, new IllegalStateException("Partner event entry failed, " + errorMessage));
+		}
+	}
+
+	/**
+	 * Send failed events again once their backoff delay is over, or fail them once out of retries.
+	 * @param events the failed events.
+	 * @param attempt number of the attempts that failed before the last one.
+	 * @param error the error of the last attempt.
+	 */
+	private void retryOrFail(List<PendingEvent> events, int attempt, Exception error) {
+		if (attempt < _retries) {
+			try {
+				_senders.schedule(() -> send(events, attempt + 1), _retryDelayMillis << attempt, TimeUnit.MILLISECONDS);
+				return;
+			} catch (RejectedExecutionException e) {
+				log.warn("partner event sender shut down, failing " + events.size() + " events without retrying them");
+			}
+		}
+		events.forEach(event -> event.getSent().completeExceptionally(error));
+	}
+
+	private static int utf8Length(String value) {
+		return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	@Value
+	private static class BatchKey {
+		String _region;
+		String _source;
+	}
+
+	@Value
+	static class PendingEvent {
+		String _region;
+		PutPartnerEventsRequestEntry _entry;
+		String _invocationId;
+		int _bytes;
+		CompletableFuture<Void> _sent;
+	}
+
+	/**
+	 * Events of a (region, partner event source) waiting to be sent, guarded by the batches lock.
+	 */
+	private static class Batch {
+		private List<PendingEvent> _events = new ArrayList<>();
+		private int _bytes;
+		private ScheduledFuture<?> _flush;
+
+		void add(PendingEvent event) {
+			_events.add(event);
+			_bytes += event.getBytes();
+		}
+
+		int size() {
+			return _events.size();
+		}
+
+		int getBytes() {
+			return _bytes;
+		}
+
+		void setFlush(ScheduledFuture<?> flush) {
+			_flush = flush;
+		}
+
+		/**
+		 * Take the events of the batch, leaving it empty.
+		 * @return the events.
+		 */
+		List<PendingEvent> drain() {
+			if (_flush != null) {
+				_flush.cancel(false);
+				_flush = null;
+			}
+			List<PendingEvent> events = _events;
+			_events = new ArrayList<>();
+			_bytes = 0;
+			return events;
+		}
+	}
+}
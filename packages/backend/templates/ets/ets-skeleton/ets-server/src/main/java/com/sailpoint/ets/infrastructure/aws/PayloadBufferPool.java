@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.aws;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sailpoint.utilities.JsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of reusable buffers that invocation payloads are serialized into. A payload is written once, as UTF-8 JSON,
+ * and handed to the AWS SDK as a view of the buffer. The buffer goes back to the pool once the invocation completes,
+ * so in steady state dispatch allocates no payload bytes or intermediate strings.
+ */
+class PayloadBufferPool {
+
+	/**
+	 * Buffers grown beyond the asynchronous lambda payload limit are dropped rather than pooled, so one oversized
+	 * payload does not pin its memory.
+	 */
+	static final int MAX_POOLED_BYTES = 256 * 1024;
+	static final int INITIAL_BYTES = 4 * 1024;
+
+	private final BlockingQueue<PayloadBuffer> _buffers;
+	private final ObjectMapper _objectMapper;
+
+	/**
+	 * @param size the maximum number of idle buffers kept, the number of payloads in flight at once.
+	 * @param objectMapper the application object mapper, configured like {@link JsonUtil} for the payloads: properties
+	 * named after the payload getters, and nulls left out, map values included.
+	 */
+	PayloadBufferPool(int size, ObjectMapper objectMapper) {
+		_buffers = new ArrayBlockingQueue<>(Math.max(size, 1));
+		_objectMapper = objectMapper.copy()
+			.setDefaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.NON_NULL))
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	/**
+	 * Serialize a payload into a pooled buffer. The buffer must be released once its content is no longer used.
+	 * @param payload the payload.
+	 * @return the buffer holding the payload JSON.
+	 */
+	PayloadBuffer write(Object payload) {
+		PayloadBuffer buffer = _buffers.poll();
+		if (buffer == null) {
+			buffer = new PayloadBuffer();
+		}
+
+		try {
+			_objectMapper.writeValue(buffer, payload);
+			return buffer;
+		} catch (IOException e) {
+			release(buffer);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Return a buffer to the pool.
+	 * @param buffer the buffer.
+	 */
+	void release(PayloadBuffer buffer) {
+		if (buffer.capacity() > MAX_POOLED_BYTES) {
+			return;
+		}
+		buffer.reset();
+		_buffers.offer(buffer);
+	}
+
+	/**
+	 * Number of idle buffers in the pool.
+	 */
+	int idle() {
+		return _buffers.size();
+	}
+
+	/**
+	 * Growable byte buffer exposing its content without copying it.
+	 */
+	static class PayloadBuffer extends ByteArrayOutputStream {
+
+		PayloadBuffer() {
+			super(INITIAL_BYTES);
+		}
+
+		/**
+		 * @return a view of the written bytes, valid until the buffer is released.
+		 */
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+
+		int capacity() {
+			return buf.length;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of the events stored in the event table, the codec column of an event holds its {@link #getId()}.
+ */
+public enum EventCodec {
+
+	/**
+	 * Plain JSON text in the event_json column. Only events inserted before compression use it.
+	 */
+	JSON((short)0),
+
+	/**
+	 * GZIP compressed UTF-8 JSON in the event_data column.
+	 */
+	GZIP((short)1);
+
+	private final short _id;
+
+	EventCodec(short id) {
+		_id = id;
+	}
+
+	public short getId() {
+		return _id;
+	}
+
+	/**
+	 * Get the codec stored in the codec column.
+	 * @param id the codec ID.
+	 * @return the codec.
+	 */
+	public static EventCodec of(short id) {
+		for (EventCodec codec : values()) {
+			if (codec._id == id) {
+				return codec;
+			}
+		}
+		throw new IllegalArgumentException("Unknown event codec " + id);
+	}
+
+	/**
+	 * Compress event JSON for the event_data column.
+	 * @param json the event JSON.
+	 * @return the compressed event.
+	 */
+	public static byte[] compress(String json) {
+		return compress(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Compress event JSON for the event_data column.
+	 * @param bytes the event JSON, UTF-8 encoded.
+	 * @return the compressed event.
+	 */
+	public static byte[] compress(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (OutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode the event JSON stored by this codec.
+	 * @param eventJson content of the event_json column.
+	 * @param eventData content of the event_data column.
+	 * @return the event JSON.
+	 */
+	public String decode(String eventJson, byte[] eventData) {
+		if (this == JSON) {
+			return eventJson;
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(eventData.length * 4);
+		try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(eventData))) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = gzip.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.sailpoint.ets.EtsProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Listens to the notifications the event table sends on insert, and wakes up the outbox drainers of this pod. Uses
+ * a dedicated connection outside of the pool, since it is held for as long as the pod runs.
+ *
+ * The committing pod sends its own events right after commit, so the notifications of a grace period are coalesced
+ * into a single wake up once the period is over, and the drainers only claim the events older than the grace period.
+ * The drainers then only pick up the events the committing pod failed to send, instead of racing it for every event.
+ */
+@Component
+@CommonsLog
+@RequiredArgsConstructor(onConstructor_={@Autowired})
+@Profile("!test")
+public class EventNotificationListener {
+
+	static final String CHANNEL = "event_inserted";
+
+	private static final int NOTIFICATION_TIMEOUT_MILLIS = 10000;
+	private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+	private final DataSourceProperties _dataSourceProperties;
+	private final JpaEventPublisher _eventPublisher;
+	private final EtsProperties _properties;
+
+	private volatile boolean _running;
+	private Thread _thread;
+
+	@PostConstruct
+	public void start() {
+		_running = true;
+		_thread = new Thread(this::listen, "outbox-listener");
+		_thread.setDaemon(true);
+		_thread.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		_running = false;
+		_thread.interrupt();
+	}
+
+	private void listen() {
+		while (_running) {
+			try (Connection connection = DriverManager.getConnection(_dataSourceProperties.determineUrl(),
+				_dataSourceProperties.determineUsername(), _dataSourceProperties.determinePassword())) {
+
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+				// Events inserted while not listening got no notification
+				_eventPublisher.sendEvents();
+
+				long graceMillis = _properties.getOutboxNotificationGraceMillis();
+				// Epoch millis of the first and last notifications not yet followed by a wake up, 0 if none
+				long firstNotified = 0;
+				long lastNotified = 0;
+				while (_running) {
+					long timeout = firstNotified == 0 ? NOTIFICATION_TIMEOUT_MILLIS
+						: Math.max(1, firstNotified + graceMillis - System.currentTimeMillis());
+					PGNotification[] notifications = pgConnection.getNotifications((int)timeout);
+
+					long now = System.currentTimeMillis();
+					if (notifications != null && notifications.length > 0) {
+						lastNotified = now;
+						if (firstNotified == 0) {
+							firstNotified = now;
+						}
+					}
+
+					if (firstNotified != 0 && now >= firstNotified + graceMillis) {
+						_eventPublisher.sendEvents(graceMillis);
+						// Events notified since are still in their grace period, they need another wake up
+						firstNotified = lastNotified > now - graceMillis ? lastNotified : 0;
+					}
+				}
+			} catch (Exception e) {
+				if (!_running) {
+					return;
+				}
+				log.warn("event notification listener failed, reconnecting", e);
+				try {
+					Thread.sleep(RECONNECT_DELAY_MILLIS);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+}
@@ -7,8 +7,10 @@ import com.google.gson.JsonSyntaxException;
 import com.sailpoint.atlas.boot.core.web.TenantIdentifier;
 import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.command.InvokeTriggerCommand;
+import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.TriggerRepo;
 import com.sailpoint.ets.exception.ValidationException;
+import com.sailpoint.ets.infrastructure.subscription.SubscribedTriggerSet;
 import com.sailpoint.ets.infrastructure.util.MetricsReporter;
 import com.sailpoint.ets.infrastructure.util.TriggerEventLogUtil;
 import com.sailpoint.ets.service.TriggerService;
@@ -37,6 +39,10 @@ public class EventSourceEventHandler implements EventHandler {
 
 	private final TriggerService _triggerService;
 
+	private final SubscribedTriggerSet _subscribedTriggers;
+
+	private final EtsFeatureStore _etsFeatureStore;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -64,11 +70,22 @@ public class EventSourceEventHandler implements EventHandler {
 			.orElse(UUID.randomUUID().toString());
 		headers.putIfAbsent(EventHeaders.REQUEST_ID, requestId);
 
-		// Make sure the corresponding trigger exists for the event type and that the tenant has already subscribed to it
+		// Make sure the corresponding trigger exists for the event type and that the tenant has already subscribed to it.
+		// The event content is only parsed once the event is known to be routed to the tenant's subscriptions.
 		_triggerRepo.findIdByEventSource(eventHandlerContext.getTopic().getName(), event.getType()).ifPresent(triggerId -> {
+			TenantId tenantId = new TenantId(tenantIdentifier);
+
+			// Settle routing before the content is parsed, most events belong to tenants without any subscription to the trigger
+			if (!_subscribedTriggers.isSubscribed(tenantId, triggerId)) {
+				return;
+			}
+
 			try {
+				if (!_etsFeatureStore.isEnabledForTenant(triggerId)) {
+					log.debug("Event skipped because trigger '" + triggerId + "' is disabled for tenant " + tenantIdentifier);
+					return;
+				}
 
-				TenantId tenantId = new TenantId(tenantIdentifier);
 				Map<String, Object> input = event.getContent(Map.class);
 
 				InvokeTriggerCommand cmd = InvokeTriggerCommand.builder()
@@ -3,12 +3,15 @@
  */
 package com.sailpoint.ets.infrastructure.event;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sailpoint.atlas.ApplicationInfo;
 import com.sailpoint.atlas.boot.core.web.TenantIdentifier;
 import com.sailpoint.atlas.event.idn.IdnTopic;
+import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.event.AckEvent;
 import com.sailpoint.ets.domain.event.DomainEvent;
 import com.sailpoint.ets.domain.event.EventPublisher;
+import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
 import com.sailpoint.iris.client.Event;
 import com.sailpoint.iris.client.EventBuilder;
 import com.sailpoint.iris.client.EventHeaders;
@@ -17,24 +20,67 @@ import com.sailpoint.iris.client.Topic;
 import com.sailpoint.metrics.annotation.Metered;
 import com.sailpoint.utilities.JsonUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportEventsTableCount;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxBatch;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxEventSize;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxOldestEventAge;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxPublishLatency;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxTopicDepth;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportOutboxTruncation;
 
 /**
  * JpaEventPublisher
+ *
+ * Events are relayed to kafka from the event table by drainers, each draining the events of one bucket of tenants.
+ * A bucket is only drained by one drainer at a time across all the pods, holding its advisory lock, so the pods must
+ * all use the same number of workers. Committed transactions send their own events right away, unless a drainer is
+ * draining their bucket. The ordering guaranteed is thus:
+ * <ul>
+ *     <li>the events of a transaction are published in order;</li>
+ *     <li>the drained events of a tenant are published in order, and never concurrently with events of the tenant
+ *     sent right after commit;</li>
+ *     <li>an event sent right after commit may overtake an older event of its tenant still waiting in the event table,
+ *     e.g. when sending the older one right after its commit failed;</li>
+ *     <li>the event of an invocation dispatched in process is leased out of the event table while dispatching, later
+ *     events of its tenant may be drained meanwhile.</li>
+ * </ul>
  */
 @Component
 @CommonsLog
@@ -42,20 +88,134 @@ import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportEvents
 @Profile("!test")
 public class JpaEventPublisher implements EventPublisher {
 
-	private static final String POLL_SQL = "DELETE FROM event WHERE id=(SELECT id FROM event ORDER BY id FOR UPDATE SKIP LOCKED LIMIT 1) RETURNING id, topic, event_json";
+	private static final String POLL_SQL = "DELETE FROM event WHERE id IN (SELECT id FROM event " +
+		"WHERE partition_hash % ? = ? AND created <= now() - ? * interval '1 millisecond' " +
+		"AND (claimed IS NULL OR claimed <= now() - ? * interval '1 millisecond') " +
+		"ORDER BY id FOR UPDATE SKIP LOCKED LIMIT ?) RETURNING id, topic, event_json, created, codec, event_data";
+
+	private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?, ?)";
+
+	private static final String CLAIM_SQL = "DELETE FROM event WHERE id IN (SELECT id FROM event " +
+		"WHERE id = ANY(?) FOR UPDATE SKIP LOCKED) RETURNING id";
+
+	private static final String LEASE_SQL = "UPDATE event SET claimed = now() WHERE id = ? AND claimed IS NULL";
+
+	private static final String RELEASE_SQL = "UPDATE event SET claimed = NULL WHERE id = ?";
+
+	private static final String COMPLETE_SQL = "DELETE FROM event WHERE id = ? AND claimed IS NOT NULL";
+
+	/**
+	 * Number of event table partitions, see the V13 migration.
+	 */
+	static final int PARTITION_SLOTS = 4;
+
+	/**
+	 * Attempts to lock a drained partition for truncation, and milliseconds each attempt waits for the lock. Inserts
+	 * and drains queue up behind a pending lock request, so it is only ever waited for briefly.
+	 */
+	private static final int TRUNCATE_ATTEMPTS = 3;
+	private static final long TRUNCATE_LOCK_TIMEOUT_MILLIS = 200;
+
+	/**
+	 * Key space of the bucket advisory locks.
+	 */
+	private static final int BUCKET_LOCK_SPACE = 0x657473;
+
+	/**
+	 * Pending grace of a drainer that has not been woken up.
+	 */
+	private static final long NOT_PENDING = Long.MAX_VALUE;
+
+	/**
+	 * Result of a batch that could not be claimed, another pod holding the lock of its bucket.
+	 */
+	static final int CONTENDED = -1;
 
 	private final com.sailpoint.iris.client.EventPublisher _irisEventPublisher;
 	private final PersistedEventRepo _persistedEventRepo;
 	private final JdbcTemplate _jdbcTemplate;
 	private final ApplicationInfo _applicationInfo;
+	private final TransactionTemplate _transactionTemplate;
+	private final EtsProperties _properties;
+	private final LocalDispatcher _localDispatcher;
+
+	private ExecutorService _drainers;
+	private ScheduledExecutorService _retries;
+	private AtomicBoolean[] _draining;
+	private AtomicBoolean[] _retrying;
+	private AtomicLong[] _pending;
+	private TransactionTemplate _newTransactionTemplate;
+	private final Set<String> _reportedTopics = ConcurrentHashMap.newKeySet();
 
-	private AtomicBoolean _sendingEvents = new AtomicBoolean(false);
+	@PostConstruct
+	public void init() {
+		// Committed events are sent from afterCommit, where any transactional work needs a new transaction
+		_newTransactionTemplate = new TransactionTemplate(_transactionTemplate.getTransactionManager());
+		_newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		int workers = _properties.getOutboxWorkers();
+		_drainers = Executors.newFixedThreadPool(workers,
+			new ThreadFactoryBuilder().setNameFormat("outbox-drainer-%d").setDaemon(true).build());
+		_retries = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setNameFormat("outbox-retry-%d").setDaemon(true).build());
+		_draining = new AtomicBoolean[workers];
+		_retrying = new AtomicBoolean[workers];
+		_pending = new AtomicLong[workers];
+		for (int i = 0; i < workers; i++) {
+			_draining[i] = new AtomicBoolean(false);
+			_retrying[i] = new AtomicBoolean(false);
+			_pending[i] = new AtomicLong(NOT_PENDING);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		_retries.shutdownNow();
+		_drainers.shutdown();
+	}
 
 	@Override
 	@Metered
 	public void publish(DomainEvent domainEvent) {
 		TenantIdentifier identifier = TenantIdentifier.parse(domainEvent.getTenantId().toString());
 
+		Event event = newEventBuilder(domainEvent, identifier).build();
+		byte[] json = event.toJson().getBytes(StandardCharsets.UTF_8);
+		byte[] eventData = EventCodec.compress(json);
+		reportOutboxEventSize(json.length, eventData.length);
+
+		PersistedEvent persistedEvent = PersistedEvent.builder()
+			.topic(new PodTopic(getTopic(domainEvent), identifier.getPod()).getId())
+			.eventData(eventData)
+			.codec(EventCodec.GZIP.getId())
+			.partitionHash(domainEvent.getTenantId().toString().hashCode() & Integer.MAX_VALUE)
+			.slot((short)currentSlot())
+			.build();
+
+		_persistedEventRepo.save(persistedEvent);
+
+		// Invocations dispatched in process still go to kafka, marked for the dispatcher to skip them
+		Event dispatchedEvent = null;
+		if (_localDispatcher.isEnabled() && domainEvent instanceof TriggerInvokedEvent) {
+			// A builder of its own, the persisted event must never carry the marker
+			dispatchedEvent = newEventBuilder(domainEvent, identifier)
+				.addHeader(TriggerEventHandler.LOCALLY_DISPATCHED_HEADER, "true")
+				.build();
+		}
+
+		// Keep the event at hand, to send it as soon as this transaction commits successfully...
+		// The insert itself is batched until flush, the sequence already assigned the ID
+		getTransactionEvents().add(new ClaimedEvent(persistedEvent.getId(), Topic.parse(persistedEvent.getTopic()),
+			event, System.currentTimeMillis(), persistedEvent.getPartitionHash() % _draining.length, dispatchedEvent));
+	}
+
+	/**
+	 * Start a builder of the event of a domain event, with its headers.
+	 * @param domainEvent the domain event.
+	 * @param identifier the tenant of the domain event.
+	 * @return the event builder.
+	 */
+	private EventBuilder newEventBuilder(DomainEvent domainEvent, TenantIdentifier identifier) {
 		EventBuilder builder = EventBuilder.withTypeAndContent(domainEvent.getClass().getSimpleName(), domainEvent)
 			.addHeader(EventHeaders.POD, identifier.getPod())
 			.addHeader(EventHeaders.ORG, identifier.getOrg())
@@ -72,55 +232,315 @@ public class JpaEventPublisher implements EventPublisher {
 
 		domainEvent.getPartitionKey().ifPresent(key ->
 			builder.addHeader(EventHeaders.PARTITON_KEY, key));
+		return builder;
+	}
 
-		PersistedEvent persistedEvent = PersistedEvent.builder()
-			.topic(new PodTopic(getTopic(domainEvent), identifier.getPod()).getId())
-			.eventJson(builder.build().toJson())
-			.build();
-
-		_persistedEventRepo.save(persistedEvent);
+	/**
+	 * Get the events published by the current transaction, sent once it commits.
+	 * @return the events of the current transaction.
+	 */
+	private List<ClaimedEvent> getTransactionEvents() {
+		List<ClaimedEvent> events = (List<ClaimedEvent>)TransactionSynchronizationManager.getResource(this);
+		if (events != null) {
+			return events;
+		}
 
-		// Trigger event sending when this transaction commits successfully...
+		List<ClaimedEvent> transactionEvents = new ArrayList<>();
+		TransactionSynchronizationManager.bindResource(this, transactionEvents);
 		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
 			@Override
 			public void afterCommit() {
-				sendEvents();
+				sendCommittedEvents(transactionEvents);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(JpaEventPublisher.this);
 			}
 		});
+		return transactionEvents;
 	}
 
 	/**
-	 * Run every once in a while to pick up and send events that failed to send.
+	 * Send the events of a committed transaction straight from memory, claiming and deleting their rows by id. Rows
+	 * that a drainer claimed first are left to it, and so are the rows of a bucket that a drainer is draining. Should
+	 * sending fail, the rows remain and the drainers read them back from the event table.
+	 * @param events the events of the committed transaction.
 	 */
-	@Scheduled(fixedDelay = 30000)
-	public void scheduledSendEvents() {
+	private void sendCommittedEvents(List<ClaimedEvent> events) {
+		List<ClaimedEvent> relayed = events.stream()
+			.filter(event -> event.getDispatchedEvent() == null
+				|| !_localDispatcher.tryExecute(() -> dispatchLocally(event)))
+			.collect(Collectors.toList());
+		if (relayed.isEmpty()) {
+			return;
+		}
+
+		long start = System.nanoTime();
 		try {
-			long count = _persistedEventRepo.count();
-			reportEventsTableCount(count);
+			Integer sent = _newTransactionTemplate.execute(status -> {
+				Set<Long> claimed = claim(relayed);
+				publishAll(relayed.stream()
+					.filter(event -> claimed.contains(event.getId()))
+					.collect(Collectors.toList()));
+				return claimed.size();
+			});
 
-			if (count > 0) {
+			if (sent != null && sent > 0) {
+				reportOutboxBatch(sent, System.nanoTime() - start);
+			}
+			if (sent == null || sent < relayed.size()) {
+				// Events of buckets being drained, the drainer may have checked for them already
 				sendEvents();
 			}
+		} catch (Exception e) {
+			log.error("error sending committed events, leaving them to the drainers", e);
+			sendEvents();
+		}
+	}
+
+	/**
+	 * Dispatch an invocation in process, then send its event marked as dispatched. The event row is leased in a
+	 * transaction of its own, which commits before dispatching, so neither the row, the bucket lock nor a connection
+	 * are held while dispatching. Should the dispatch fail the lease is released, should the pod die the lease runs
+	 * out. Either way the drainers then relay the unmarked event to kafka and the invocation is dispatched from there.
+	 * @param event the trigger invoked event of the committed transaction.
+	 */
+	private void dispatchLocally(ClaimedEvent event) {
+		Boolean leased = _newTransactionTemplate.execute(status ->
+			tryLockBucket(event.getBucket()) && _jdbcTemplate.update(LEASE_SQL, event.getId()) == 1);
+		if (!Boolean.TRUE.equals(leased)) {
+			// A drainer relays it, or already did
+			sendEvents();
+			return;
+		}
+
+		try {
+			_localDispatcher.dispatch(event.getEvent());
+			_newTransactionTemplate.execute(status -> {
+				// Unless the lease ran out and a drainer relayed the event meanwhile
+				if (_jdbcTemplate.update(COMPLETE_SQL, event.getId()) == 1) {
+					publishAll(Collections.singletonList(new ClaimedEvent(event.getId(), event.getTopic(),
+						event.getDispatchedEvent(), event.getCreated(), event.getBucket(), null)));
+				}
+				return null;
+			});
+		} catch (Exception e) {
+			log.warn("error dispatching event " + event.getId() + " locally, relaying it through kafka", e);
+			release(event);
+			sendEvents();
+		}
+	}
+
+	/**
+	 * Release the lease of an event, for the drainers to relay it right away.
+	 * @param event the leased event.
+	 */
+	private void release(ClaimedEvent event) {
+		try {
+			_newTransactionTemplate.execute(status -> _jdbcTemplate.update(RELEASE_SQL, event.getId()));
+		} catch (Exception e) {
+			log.warn("error releasing event " + event.getId() + ", relaying it once its lease runs out", e);
+		}
+	}
+
+	/**
+	 * Claim and delete the rows of the events, skipping rows claimed by anyone else and rows of buckets being drained.
+	 * @param events the events to claim.
+	 * @return IDs of the claimed events.
+	 */
+	private Set<Long> claim(List<ClaimedEvent> events) {
+		Set<Integer> lockedBuckets = events.stream()
+			.map(ClaimedEvent::getBucket)
+			.distinct()
+			.filter(this::tryLockBucket)
+			.collect(Collectors.toSet());
+		Long[] ids = events.stream()
+			.filter(event -> lockedBuckets.contains(event.getBucket()))
+			.map(ClaimedEvent::getId)
+			.toArray(Long[]::new);
+		if (ids.length == 0) {
+			return Collections.emptySet();
+		}
+
+		return new HashSet<>(_jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(CLAIM_SQL);
+			statement.setArray(1, connection.createArrayOf("bigint", ids));
+			return statement;
+		}, (rs, rowNum) -> rs.getLong(1)));
+	}
+
+	/**
+	 * Run every once in a while to pick up and send events that failed to send. Only a safety net, inserted events
+	 * wake the drainers of every pod through {@link EventNotificationListener} once their grace period is over.
+	 */
+	@Scheduled(fixedDelayString = "${ets.outboxPollIntervalMillis:60000}")
+	public void scheduledSendEvents() {
+		try {
+			// Counting the rows would scan the whole table
+			reportEventsTableCount(_persistedEventRepo.estimateCount());
+			reportOutboxLag();
+
+			sendEvents();
 		} catch (Exception e) {
 			log.error("error send events", e);
 			throw e;
 		}
 	}
 
-	private void sendEvents() {
-		if (_sendingEvents.getAndSet(true)) {
+	/**
+	 * Report the age of the oldest pending event and the number of pending events of each topic.
+	 */
+	private void reportOutboxLag() {
+		reportOutboxOldestEventAge(_persistedEventRepo.findOldestCreated()
+			.map(created -> Duration.between(created, OffsetDateTime.now()).toMillis())
+			.orElse(0L));
+
+		Set<String> topics = new HashSet<>();
+		for (TopicEventCount topicEventCount : _persistedEventRepo.countByTopic()) {
+			reportOutboxTopicDepth(topicEventCount.getTopic(), topicEventCount.getCount());
+			topics.add(topicEventCount.getTopic());
+		}
+		// Drained topics no longer show up in the counts
+		_reportedTopics.stream()
+			.filter(topic -> !topics.contains(topic))
+			.forEach(topic -> reportOutboxTopicDepth(topic, 0));
+		_reportedTopics.addAll(topics);
+	}
+
+	/**
+	 * Truncate the event table partition furthest from the one events are inserted into, once it is drained.
+	 * Truncating reclaims the space of the deleted events right away, instead of leaving it to autovacuum.
+	 */
+	@Scheduled(fixedDelayString = "${ets.outboxPollIntervalMillis:60000}")
+	public void truncateDrainedPartition() {
+		String partition = "event_" + (currentSlot() + PARTITION_SLOTS / 2) % PARTITION_SLOTS;
+		for (int attempt = 1; attempt <= TRUNCATE_ATTEMPTS; attempt++) {
+			try {
+				Boolean truncated = _transactionTemplate.execute(status -> {
+					_jdbcTemplate.execute("SET LOCAL lock_timeout = '" + TRUNCATE_LOCK_TIMEOUT_MILLIS + "ms'");
+					// Hold off inserts until the end of the transaction, so the partition can not fill up after
+					// the check
+					_jdbcTemplate.execute("LOCK TABLE " + partition + " IN ACCESS EXCLUSIVE MODE");
+					boolean drained = _jdbcTemplate.queryForObject("SELECT pg_relation_size('" + partition + "') > 0 " +
+						"AND NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+					if (drained) {
+						_jdbcTemplate.execute("TRUNCATE " + partition);
+					}
+					return drained;
+				});
+				if (Boolean.TRUE.equals(truncated)) {
+					reportOutboxTruncation(true);
+					log.info("truncated drained event partition " + partition);
+				}
+				return;
+			} catch (DataAccessException e) {
+				log.debug("attempt " + attempt + " to truncate event partition " + partition + " failed, in use", e);
+			}
+		}
+		reportOutboxTruncation(false);
+		log.info("event partition " + partition + " stayed in use, truncating it later");
+	}
+
+	/**
+	 * Get the event table partition events are currently inserted into.
+	 * @return the partition slot.
+	 */
+	private int currentSlot() {
+		long rotation = TimeUnit.MINUTES.toMillis(_properties.getOutboxRotationMinutes());
+		return (int)((System.currentTimeMillis() / rotation) % PARTITION_SLOTS);
+	}
+
+	/**
+	 * Wake up every drainer. A drainer that is already draining its partition drains it once more afterwards, so
+	 * events inserted during a drain are never left behind until the next poll.
+	 */
+	public void sendEvents() {
+		sendEvents(0);
+	}
+
+	/**
+	 * Wake up every drainer, to send the events inserted at least the grace period ago. Younger events are left to
+	 * the committing transaction, which sends them itself right after commit.
+	 * @param graceMillis the grace period in milliseconds, 0 to send every event.
+	 */
+	public void sendEvents(long graceMillis) {
+		for (int partition = 0; partition < _draining.length; partition++) {
+			_pending[partition].accumulateAndGet(graceMillis, Math::min);
+			wakeUp(partition);
+		}
+	}
+
+	private void wakeUp(int partition) {
+		if (_draining[partition].getAndSet(true)) {
 			return;
 		}
+
+		try {
+			_drainers.execute(() -> drain(partition));
+		} catch (RejectedExecutionException e) {
+			_draining[partition].set(false);
+			log.warn("outbox drainer " + partition + " rejected", e);
+		}
+	}
+
+	/**
+	 * Send the events of a partition until it is empty, as long as wake ups keep coming in. Should another pod hold
+	 * the lock of the partition, the wake up is retried shortly, events committed after the last poll of the other
+	 * pod would otherwise wait for the next notification.
+	 * @param partition the partition drained.
+	 */
+	private void drain(int partition) {
+		long contendedGraceMillis = NOT_PENDING;
 		try {
 			int count = 0;
-			while (sendOneEvent()) {
-				++count;
+			int sent;
+			long graceMillis;
+			while (contendedGraceMillis == NOT_PENDING
+				&& (graceMillis = _pending[partition].getAndSet(NOT_PENDING)) != NOT_PENDING) {
+				while ((sent = sendEventBatch(partition, graceMillis)) > 0) {
+					count += sent;
+				}
+				if (sent == CONTENDED) {
+					contendedGraceMillis = graceMillis;
+				}
 			}
 			if (count > 0) {
-				log.info("sent " + count + " events");
+				log.info("sent " + count + " events of partition " + partition);
 			}
+		} catch (Exception e) {
+			log.error("error draining events of partition " + partition, e);
 		} finally {
-			_sendingEvents.set(false);
+			_draining[partition].set(false);
+		}
+
+		if (contendedGraceMillis != NOT_PENDING) {
+			retryLater(partition, contendedGraceMillis);
+		} else if (_pending[partition].get() != NOT_PENDING) {
+			// A wake up may have come in between the last check and the release of the drainer
+			wakeUp(partition);
+		}
+	}
+
+	/**
+	 * Wake up a drainer again after a short delay. Wake ups coming in meanwhile are merged into the retry.
+	 * @param partition the partition to drain.
+	 * @param graceMillis the grace period of the contended wake up.
+	 */
+	private void retryLater(int partition, long graceMillis) {
+		_pending[partition].accumulateAndGet(graceMillis, Math::min);
+		if (_retrying[partition].getAndSet(true)) {
+			return;
+		}
+
+		try {
+			_retries.schedule(() -> {
+				_retrying[partition].set(false);
+				wakeUp(partition);
+			}, _properties.getOutboxContentionRetryMillis(), TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			_retrying[partition].set(false);
+			log.warn("outbox drainer " + partition + " retry rejected", e);
 		}
 	}
 
@@ -137,28 +557,106 @@ public class JpaEventPublisher implements EventPublisher {
 		}
 	}
 
-	@Transactional
-	public boolean sendOneEvent() {
-		AtomicBoolean sent = new AtomicBoolean(false);
-		_jdbcTemplate.query(POLL_SQL, rs -> {
-			long id = rs.getLong(1);
-			String rawTopic = rs.getString(2);
-			String json = rs.getString(3);
+	/**
+	 * Claim a batch of events, publish them all to kafka and delete them once every publish is acknowledged.
+	 * A failed publish rolls the whole batch back, its events are sent again by a later run.
+	 * @param partition the partition to claim the events of, events of a tenant all belong to the same partition.
+	 * @param graceMillis milliseconds an event must have been inserted for to be claimed.
+	 * @return number of events sent, {@link #CONTENDED} if another pod is draining the partition.
+	 */
+	public int sendEventBatch(int partition, long graceMillis) {
+		long start = System.nanoTime();
 
-			Topic topic = Topic.parse(rawTopic);
-			Event event = JsonUtil.parse(Event.class, json);
+		Integer sent = _transactionTemplate.execute(status -> {
+			if (!tryLockBucket(partition)) {
+				// Another pod is draining it
+				return CONTENDED;
+			}
 
-			try {
-				Future<?> future = _irisEventPublisher.publish(event, topic);
+			List<ClaimedEvent> events = _jdbcTemplate.query(POLL_SQL, (rs, rowNum) ->
+				new ClaimedEvent(rs.getLong(1), Topic.parse(rs.getString(2)),
+					JsonUtil.parse(Event.class, EventCodec.of(rs.getShort(5)).decode(rs.getString(3), rs.getBytes(6))),
+					rs.getTimestamp(4).getTime(), partition, null),
+				_draining.length, partition, graceMillis, _properties.getOutboxDispatchLeaseMillis(),
+				_properties.getOutboxBatchSize());
+			// RETURNING does not keep the claim order
+			events.sort(Comparator.comparingLong(ClaimedEvent::getId));
+
+			publishAll(events);
+			return events.size();
+		});
+
+		if (sent != null && sent > 0) {
+			reportOutboxBatch(sent, System.nanoTime() - start);
+			log.info("published " + sent + " events");
+		}
+		return sent == null ? 0 : sent;
+	}
+
+	/**
+	 * Take the advisory lock of a bucket until the end of the current transaction, unless someone else holds it.
+	 * @param bucket the bucket.
+	 * @return true if the lock was taken.
+	 */
+	private boolean tryLockBucket(int bucket) {
+		return Boolean.TRUE.equals(_jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class, BUCKET_LOCK_SPACE, bucket));
+	}
+
+	/**
+	 * Publish the events to kafka in order, and wait for all of them to be acknowledged.
+	 * @param events the events to publish.
+	 */
+	private void publishAll(List<ClaimedEvent> events) {
+		List<ClaimedEvent> published = new ArrayList<>();
+		List<Future<?>> inFlight = new ArrayList<>();
+		for (ClaimedEvent claimed : events) {
+			if (inFlight.size() >= _properties.getOutboxMaxInFlight()) {
+				awaitAll(published, inFlight);
+			}
+			published.add(claimed);
+			inFlight.add(_irisEventPublisher.publish(claimed.getEvent(), claimed.getTopic()));
+			log.debug("publishing event: " + claimed.getId() + ": " + claimed.getEvent().getType() + " to topic " +
+				claimed.getTopic().getName());
+		}
+		awaitAll(published, inFlight);
+	}
+
+	/**
+	 * Wait for the acknowledgement of every in flight publish.
+	 * @param published the events in flight, cleared once acknowledged.
+	 * @param inFlight the in flight publishes, cleared once acknowledged.
+	 */
+	private void awaitAll(List<ClaimedEvent> published, List<Future<?>> inFlight) {
+		try {
+			for (Future<?> future : inFlight) {
 				future.get();
-			} catch (Exception ex) {
-				throw new RuntimeException("error to publish event to kafka", ex);
 			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("interrupted publishing events to kafka", ex);
+		} catch (Exception ex) {
+			throw new RuntimeException("error to publish event to kafka", ex);
+		}
 
-			log.info("published event: " + id + ": " + event.getType() + " to topic '"  + rawTopic);
-			sent.set(true);
-		});
-		return sent.get();
+		long now = System.currentTimeMillis();
+		published.forEach(claimed ->
+			reportOutboxPublishLatency(claimed.getTopic().getName(), now - claimed.getCreated()));
+		published.clear();
+		inFlight.clear();
+	}
+
+	/**
+	 * Event of the event table, with its topic, the epoch millis it was inserted at and its bucket. Events dispatched
+	 * in process also carry their variant marked as dispatched.
+	 */
+	@Value
+	private static class ClaimedEvent {
+		long _id;
+		Topic _topic;
+		Event _event;
+		long _created;
+		int _bucket;
+		Event _dispatchedEvent;
 	}
 
 }
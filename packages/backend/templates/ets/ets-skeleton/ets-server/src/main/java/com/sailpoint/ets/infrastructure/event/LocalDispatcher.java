@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.iris.client.Event;
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportLocalDispatch;
+
+/**
+ * Bounded in process executor dispatching trigger invocations of this pod right after their transaction commits,
+ * saving the kafka round trip to {@link TriggerEventHandler}. Invocations it has no room for take the kafka path.
+ */
+@Component
+@CommonsLog
+public class LocalDispatcher {
+
+	private final TriggerEventHandler _triggerEventHandler;
+	private final ThreadPoolExecutor _executor;
+
+	@Autowired
+	public LocalDispatcher(@Lazy TriggerEventHandler triggerEventHandler, EtsProperties properties) {
+		_triggerEventHandler = triggerEventHandler;
+		if (properties.isLocalDispatchEnabled()) {
+			_executor = new ThreadPoolExecutor(properties.getLocalDispatchThreads(), properties.getLocalDispatchThreads(),
+				0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getLocalDispatchQueueSize()),
+				new ThreadFactoryBuilder().setNameFormat("local-dispatch-%d").setDaemon(true).build());
+		} else {
+			_executor = null;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (_executor != null) {
+			// Queued invocations are still in the event table, and relayed through kafka instead
+			_executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Check if invocations are dispatched in process.
+	 * @return true if local dispatch is enabled.
+	 */
+	public boolean isEnabled() {
+		return _executor != null;
+	}
+
+	/**
+	 * Run the task on the local dispatch executor, unless it is saturated.
+	 * @param task the task dispatching an invocation.
+	 * @return true if the task was accepted. False otherwise.
+	 */
+	public boolean tryExecute(Runnable task) {
+		if (_executor == null) {
+			return false;
+		}
+
+		try {
+			_executor.execute(task);
+			reportLocalDispatch(true);
+			return true;
+		} catch (RejectedExecutionException e) {
+			reportLocalDispatch(false);
+			log.debug("local dispatch saturated, relaying invocation through kafka");
+			return false;
+		}
+	}
+
+	/**
+	 * Dispatch the invocation of a trigger invoked event, the same way it is when consumed from kafka.
+	 * @param event the trigger invoked event.
+	 */
+	public void dispatch(Event event) {
+		_triggerEventHandler.handleEvent(event);
+	}
+}
@@ -7,13 +7,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import java.time.OffsetDateTime;
 
 /**
  * PersistedEvent
@@ -26,14 +29,48 @@ import javax.persistence.Table;
 @AllArgsConstructor
 public class PersistedEvent {
 
+	/**
+	 * Pooled sequence rather than identity, identity inserts can not be batched.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_id_seq")
+	@SequenceGenerator(name = "event_id_seq", sequenceName = "event_id_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(name="topic")
 	private String topic;
 
+	/**
+	 * Plain JSON of events stored by {@link EventCodec#JSON}.
+	 */
 	@Column(name="event_json", columnDefinition="TEXT")
 	private String eventJson;
 
+	/**
+	 * Compressed events stored by any other {@link EventCodec}.
+	 */
+	@Column(name="event_data")
+	private byte[] eventData;
+
+	/**
+	 * ID of the {@link EventCodec} of the event.
+	 */
+	@Column(name="codec")
+	private short codec;
+
+	/**
+	 * Non-negative hash of the tenant of the event, events of a tenant are relayed in order by a single drainer.
+	 */
+	@Column(name="partition_hash")
+	private int partitionHash;
+
+	/**
+	 * Event table partition the event is inserted into, partitions rotate over time.
+	 */
+	@Column(name="slot")
+	private short slot;
+
+	@CreationTimestamp
+	private OffsetDateTime created;
+
 }
@@ -3,12 +3,39 @@
  */
 package com.sailpoint.ets.infrastructure.event;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * PersistedEventRepo
  */
 @Repository
 public interface PersistedEventRepo extends CrudRepository<PersistedEvent, Long> {
+
+	/**
+	 * Estimate the number of events from the statistics of the event table partitions, without scanning them.
+	 * @return estimated number of events.
+	 */
+	@Query(value = "SELECT COALESCE(SUM(s.n_live_tup), 0) FROM pg_inherits i JOIN pg_stat_user_tables s ON s.relid = i.inhrelid " +
+		"WHERE i.inhparent = 'event'::regclass", nativeQuery = true)
+	long estimateCount();
+
+	/**
+	 * Count the pending events of each topic, without loading the events.
+	 * @return number of pending events per topic.
+	 */
+	@Query("SELECT e.topic AS topic, COUNT(e) AS count FROM PersistedEvent e GROUP BY e.topic")
+	List<TopicEventCount> countByTopic();
+
+	/**
+	 * Find when the oldest pending event was inserted, without loading the event.
+	 * @return insertion time of the oldest pending event, if any.
+	 */
+	@Query("SELECT MIN(e.created) FROM PersistedEvent e")
+	Optional<OffsetDateTime> findOldestCreated();
 }
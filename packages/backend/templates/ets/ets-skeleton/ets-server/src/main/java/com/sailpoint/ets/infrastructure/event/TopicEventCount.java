@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+/**
+ * Number of pending events of a topic, projected from the event table without loading the events.
+ */
+public interface TopicEventCount {
+
+	/**
+	 * @return the topic ID.
+	 */
+	String getTopic();
+
+	/**
+	 * @return number of pending events of the topic.
+	 */
+	long getCount();
+}
@@ -7,29 +7,50 @@ import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.command.CompleteInvocationCommand;
 import com.sailpoint.ets.domain.command.DispatchInvocationCommand;
 import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
+import com.sailpoint.ets.domain.subscription.Subscription;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.service.TriggerService;
+import com.sailpoint.iris.client.Event;
 import com.sailpoint.iris.server.EventHandler;
 import com.sailpoint.iris.server.EventHandlerContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * TriggerEvents
  */
 @Component
+@CommonsLog
 @RequiredArgsConstructor(onConstructor_={@Autowired})
 public class TriggerEventHandler implements EventHandler {
 
+	/**
+	 * Header of the events whose invocation was already dispatched in process by {@link LocalDispatcher}.
+	 */
+	public static final String LOCALLY_DISPATCHED_HEADER = "etsLocallyDispatched";
+
 	private final TriggerService _triggerService;
 
 	@Override
 	public void handleEvent(EventHandlerContext context) {
-		TriggerInvokedEvent event = context.getEvent().getContent(TriggerInvokedEvent.class);
+		if (context.getEvent().getHeaders().map(headers -> headers.containsKey(LOCALLY_DISPATCHED_HEADER)).orElse(false)) {
+			return;
+		}
+		handleEvent(context.getEvent());
+	}
+
+	/**
+	 * Complete or dispatch the invocation of a trigger invoked event.
+	 * @param irisEvent the trigger invoked event.
+	 */
+	public void handleEvent(Event irisEvent) {
+		TriggerInvokedEvent event = irisEvent.getContent(TriggerInvokedEvent.class);
 		if (event.getSubscriptionType() == SubscriptionType.INLINE)  {
 			CompleteInvocationCommand cmd = CompleteInvocationCommand.builder()
 				.tenantId(new TenantId(event.getTenantId()))
@@ -41,6 +62,13 @@ public class TriggerEventHandler implements EventHandler {
 
 			_triggerService.completeInvocation(cmd);
 		} else {
+			Optional<Subscription> subscription = _triggerService.getSubscription(event);
+			if (!subscription.isPresent()) {
+				log.warn("Invocation " + event.getInvocationId() + " dropped because subscription '" +
+					event.getSubscriptionId() + "' no longer exists");
+				return;
+			}
+
 			DispatchInvocationCommand cmd = DispatchInvocationCommand.builder()
 				.tenantId(new TenantId(event.getTenantId()))
 				.triggerId(event.getTriggerId())
@@ -50,10 +78,12 @@ public class TriggerEventHandler implements EventHandler {
 				.triggerType(event.getType())
 				.subscriptionId(event.getSubscriptionId())
 				.subscriptionType(event.getSubscriptionType())
-				.subscriptionConfig(event.getSubscriptionConfig())
-				.scriptSource(event.getScriptSource())
-				.input(event.getInput())
-				.headers(context.getEvent().getHeaders().orElse(Collections.EMPTY_MAP))
+				// Legacy events carry an unversioned config, whose decrypted material must not be cached
+				.subscriptionVersion(event.getSubscriptionVersion() != null ? subscription.get().getVersion() : null)
+				.subscriptionConfig(subscription.get().getConfig())
+				.scriptSource(subscription.get().getScriptSource())
+				.input(_triggerService.getInput(event))
+				.headers(irisEvent.getHeaders().orElse(Collections.EMPTY_MAP))
 				.build();
 
 			_triggerService.dispatchInvocation(cmd);
@@ -6,6 +6,7 @@ package com.sailpoint.ets.infrastructure.status.event;
 import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.command.status.CreateInvocationStatusCommand;
 import com.sailpoint.ets.domain.event.TriggerInvokedEvent;;
+import com.sailpoint.ets.domain.subscription.Subscription;
 import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.service.TriggerService;
 import com.sailpoint.iris.server.EventHandler;
@@ -15,6 +16,7 @@ import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.UUID;
 
 /**
@@ -40,9 +42,11 @@ public class StartInvocationStatusEventHandler implements EventHandler {
 			.subscriptionId(UUID.fromString(event.getSubscriptionId()))
 			.subscriptionName(event.getSubscriptionName()==null ? "" : event.getSubscriptionName() )
 			.subscriptionType(event.getSubscriptionType())
-			.subscriptionConfig(event.getSubscriptionConfig())
+			.subscriptionConfig(_triggerService.getSubscription(event)
+				.map(Subscription::getConfig)
+				.orElse(Collections.emptyMap()))
 			.context(event.getContext())
-			.input(event.getInput())
+			.input(_triggerService.getInput(event))
 			.build();
 		_triggerService.createCreateInvocationStatus(cmd);
 	}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sailpoint.atlas.util.AwsEncryptionServiceUtil;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.command.DispatchTemplate;
+import com.sailpoint.ets.domain.subscription.SubscriptionType;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.sailpoint.ets.infrastructure.util.HTTPConfigConverter;
+import com.sailpoint.ets.infrastructure.util.ScriptConfigConverter;
+import com.sailpoint.ets.infrastructure.web.dto.HttpConfigDto;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.sailpoint.ets.infrastructure.util.HTTPConfigConverter.SUBSCRIPTION_ID;
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportDecryptedSubscriptionCacheLookup;
+
+/**
+ * Decrypts the credentials and scripts of subscriptions for dispatch, keeping the {@link DispatchTemplate}s built
+ * from the decrypted material in memory so that dispatching to a subscription only calls KMS once per subscription
+ * version.
+ *
+ * Entries are keyed by subscription version, so an updated subscription is never dispatched with stale credentials.
+ * {@link MessagingSubscriptionCache} clears the entries of a tenant's trigger on every ETS instance when its
+ * subscriptions change, so deleted or replaced secrets do not linger in memory. The cache is bounded in size and age,
+ * and holds its values softly so it gives way under memory pressure.
+ */
+@Component
+public class DecryptedSubscriptionCache {
+
+	private final HTTPConfigConverter _httpConfigConverter;
+	private final ScriptConfigConverter _scriptConfigConverter;
+	private final Cache<CacheKey, DispatchTemplate> _templates;
+
+	@Autowired
+	public DecryptedSubscriptionCache(AwsEncryptionServiceUtil awsEncryptionServiceUtil, EtsProperties properties) {
+		_httpConfigConverter = new HTTPConfigConverter(awsEncryptionServiceUtil);
+		_scriptConfigConverter = new ScriptConfigConverter(awsEncryptionServiceUtil);
+		_templates = CacheBuilder.newBuilder()
+			.maximumSize(properties.getDecryptedSubscriptionCacheSize())
+			.expireAfterWrite(properties.getDecryptedSubscriptionCacheExpirySeconds(), TimeUnit.SECONDS)
+			.softValues()
+			.build();
+	}
+
+	/**
+	 * Get the dispatch template of a subscription, building it on first use of the subscription version.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 * @param subscriptionId the subscription ID.
+	 * @param subscriptionType the subscription type.
+	 * @param version the subscription version, null if unknown in which case the template is not cached.
+	 * @param builder builds the template, decrypting the subscription material.
+	 * @return the dispatch template.
+	 */
+	public DispatchTemplate getDispatchTemplate(TenantId tenantId, String triggerId, String subscriptionId,
+												SubscriptionType subscriptionType, Long version,
+												Supplier<DispatchTemplate> builder) {
+		// Invocations published before subscriptions were versioned carry the material themselves
+		if (version == null) {
+			return builder.get();
+		}
+
+		CacheKey key = new CacheKey(tenantId.toString(), triggerId, subscriptionId, version);
+		DispatchTemplate template = _templates.getIfPresent(key);
+		reportDecryptedSubscriptionCacheLookup(subscriptionType, template != null);
+		if (template != null) {
+			return template;
+		}
+
+		try {
+			return _templates.get(key, builder::get);
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Decrypt the credentials of an HTTP config.
+	 * @param subscriptionId the subscription ID.
+	 * @param httpConfig the encrypted HTTP config of the subscription.
+	 * @return the decrypted HTTP config.
+	 */
+	public HttpConfigDto decryptHttpConfig(String subscriptionId, Map<String, Object> httpConfig) {
+		return _httpConfigConverter.convertToHttpConfigDto(httpConfig, encryptionContext(subscriptionId));
+	}
+
+	/**
+	 * Decrypt a script source.
+	 * @param subscriptionId the subscription ID.
+	 * @param scriptSource the encrypted script source of the subscription.
+	 * @return the decrypted script source.
+	 */
+	public String decryptScriptSource(String subscriptionId, String scriptSource) {
+		return _scriptConfigConverter.decrypt(scriptSource, encryptionContext(subscriptionId));
+	}
+
+	/**
+	 * Drop the decrypted material of the tenant's subscriptions to the trigger, on this ETS instance only.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 */
+	public void invalidate(TenantId tenantId, TriggerId triggerId) {
+		_templates.asMap().keySet().removeIf(k -> k.getTenantId().equals(tenantId.toString())
+			&& k.getTriggerId().equals(triggerId.toString()));
+	}
+
+	/**
+	 * Drop the decrypted material of all the tenant's subscriptions, on this ETS instance only.
+	 * @param tenantId the tenant ID.
+	 */
+	public void invalidate(TenantId tenantId) {
+		_templates.asMap().keySet().removeIf(k -> k.getTenantId().equals(tenantId.toString()));
+	}
+
+	private static Map<String, String> encryptionContext(String subscriptionId) {
+		return Collections.singletonMap(SUBSCRIPTION_ID, subscriptionId);
+	}
+
+	/**
+	 * Cache key. The subscription ID and version identify the material, tenant and trigger ID scope invalidations.
+	 */
+	@Value
+	static class CacheKey {
+		private final String _tenantId;
+		private final String _triggerId;
+		private final String _subscriptionId;
+		private final Long _version;
+	}
+}
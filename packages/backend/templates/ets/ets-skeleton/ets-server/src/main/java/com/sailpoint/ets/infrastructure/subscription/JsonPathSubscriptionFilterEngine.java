@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.sailpoint.utilities.StringUtil;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportSubscriptionFilterEvaluation;
+
+/**
+ * JsonPathSubscriptionFilterEngine is an implementation for {@link SubscriptionFilterEngine} based on JsonPath.
+ *
+ * Subscription filters are compiled once and cached by subscription ID and version. The filters of the subscriptions
+ * of a tenant to a trigger are grouped into a {@link SubscriptionFilterIndex}, so the input of an event is walked once
+ * for all of them.
+ */
+@Component
+public class JsonPathSubscriptionFilterEngine implements SubscriptionFilterEngine {
+
+	private static final int MAX_CACHED_FILTERS = 10_000;
+	private static final int MAX_CACHED_INDEXES = 10_000;
+	private static final int INDEX_EXPIRY_HOURS = 1;
+
+	private final Cache<FilterKey, JsonPath> _filters = CacheBuilder.newBuilder()
+		.maximumSize(MAX_CACHED_FILTERS)
+		.build();
+
+	private final Cache<IndexKey, SubscriptionFilterIndex> _indexes = CacheBuilder.newBuilder()
+		.maximumSize(MAX_CACHED_INDEXES)
+		.expireAfterAccess(INDEX_EXPIRY_HOURS, TimeUnit.HOURS)
+		.build();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isValid(String filter) {
+		if (StringUtil.isNullOrEmpty(filter)) {
+			return false;
+		}
+
+		try {
+			JsonPath.compile(filter);
+			return true;
+		} catch (InvalidPathException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matches(String filter, Map<String, Object> input) {
+		return matches(JsonPath.compile(filter), JsonPath.parse(input));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FilterInput prepare(TenantId tenantId, TriggerId triggerId, Collection<Subscription> subscriptions,
+							   Map<String, Object> input) {
+		long start = System.nanoTime();
+
+		SubscriptionFilterIndex index = getIndex(new IndexKey(tenantId, triggerId), subscriptions);
+		SubscriptionFilterIndex.Result result = index.match(input);
+
+		reportSubscriptionFilterEvaluation(triggerId, index.getFilteredCount(), result.getMatchedCount(),
+			System.nanoTime() - start);
+
+		return result;
+	}
+
+	/**
+	 * Get the routing index of the tenant and trigger, (re)building it when any of the subscriptions changed.
+	 * @param key the tenant and trigger.
+	 * @param subscriptions the current subscriptions of the tenant to the trigger.
+	 * @return the index.
+	 */
+	private SubscriptionFilterIndex getIndex(IndexKey key, Collection<Subscription> subscriptions) {
+		SubscriptionFilterIndex index = _indexes.getIfPresent(key);
+		if (index == null || !index.isCurrent(subscriptions)) {
+			index = SubscriptionFilterIndex.build(subscriptions, this::getCompiledFilter);
+			_indexes.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Get the compiled filter of the subscription, compiling it on first use of the subscription version.
+	 * @param subscription the subscription.
+	 * @return the compiled filter.
+	 */
+	private JsonPath getCompiledFilter(Subscription subscription) {
+		try {
+			return _filters.get(new FilterKey(subscription.getId(), subscription.getVersion()),
+				() -> JsonPath.compile(subscription.getFilter()));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * The input matches when the filter selects a value, or a non empty list of values for indefinite paths.
+	 */
+	static boolean matches(JsonPath filter, DocumentContext document) {
+		Object result = document.read(filter);
+		if (result instanceof Collection) {
+			return !((Collection<?>)result).isEmpty();
+		}
+		return result != null;
+	}
+
+	/**
+	 * Cache key of a compiled subscription filter.
+	 */
+	@Value
+	private static class FilterKey {
+		UUID _subscriptionId;
+		long _version;
+	}
+
+	/**
+	 * Cache key of a subscription routing index.
+	 */
+	@Value
+	private static class IndexKey {
+		TenantId _tenantId;
+		TriggerId _triggerId;
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sailpoint.atlas.boot.messaging.annotation.MessageHandler;
+import com.sailpoint.atlas.boot.messaging.idn.IdnMessageScope;
+import com.sailpoint.atlas.boot.messaging.service.MessageClientService;
+import com.sailpoint.atlas.messaging.client.JobSubmission;
+import com.sailpoint.atlas.messaging.client.Payload;
+import com.sailpoint.atlas.messaging.client.SendMessageOptions;
+import com.sailpoint.atlas.messaging.server.MessageHandlerContext;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.sailpoint.ets.infrastructure.util.MetricsReporter.reportSubscriptionCacheLookup;
+
+/**
+ * MessagingSubscriptionCache is an implementation for {@link SubscriptionCache} that keeps the subscriptions in
+ * memory and broadcasts invalidations to all the ETS instances over atlas messaging.
+ */
+@Component
+@CommonsLog
+public class MessagingSubscriptionCache implements SubscriptionCache {
+
+	static final String INVALIDATION_PAYLOAD_TYPE = "SubscriptionCacheInvalidation";
+
+	private final SubscriptionRepo _subscriptionRepo;
+	private final MessageClientService _messageClientService;
+	private final SubscribedTriggerSet _subscribedTriggers;
+	private final DecryptedSubscriptionCache _decryptedSubscriptions;
+	private final Cache<CacheKey, List<Subscription>> _subscriptions;
+	private final Cache<UUID, Subscription> _subscriptionsById;
+
+	@Autowired
+	public MessagingSubscriptionCache(SubscriptionRepo subscriptionRepo, MessageClientService messageClientService,
+									  SubscribedTriggerSet subscribedTriggers, DecryptedSubscriptionCache decryptedSubscriptions,
+									  EtsProperties properties) {
+		_subscriptionRepo = subscriptionRepo;
+		_messageClientService = messageClientService;
+		_subscribedTriggers = subscribedTriggers;
+		_decryptedSubscriptions = decryptedSubscriptions;
+		// Expiry only bounds staleness should an invalidation message ever get lost
+		_subscriptions = CacheBuilder.newBuilder()
+			.maximumSize(properties.getSubscriptionCacheSize())
+			.expireAfterWrite(properties.getSubscriptionCacheExpirySeconds(), TimeUnit.SECONDS)
+			.build();
+		_subscriptionsById = CacheBuilder.newBuilder()
+			.maximumSize(properties.getSubscriptionCacheSize())
+			.expireAfterWrite(properties.getSubscriptionCacheExpirySeconds(), TimeUnit.SECONDS)
+			.build();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Subscription> findAllByTenantIdAndTriggerId(TenantId tenantId, TriggerId triggerId) {
+		CacheKey key = new CacheKey(tenantId.toString(), triggerId.toString());
+
+		List<Subscription> subscriptions = _subscriptions.getIfPresent(key);
+		reportSubscriptionCacheLookup(triggerId, subscriptions != null);
+		if (subscriptions != null) {
+			return subscriptions;
+		}
+
+		try {
+			return _subscriptions.get(key, () -> {
+				try (Stream<Subscription> stream = _subscriptionRepo.findAllByTenantIdAndTriggerId(tenantId, triggerId)) {
+					return Collections.unmodifiableList(stream.collect(Collectors.toList()));
+				}
+			});
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<Subscription> findByTenantIdAndId(TenantId tenantId, UUID id, long minVersion) {
+		// Versions only ever grow, a cached version at least as recent as the invocation is good to use
+		Subscription cached = _subscriptionsById.getIfPresent(id);
+		if (cached != null && cached.getTenantId().equals(tenantId) && cached.getVersion() >= minVersion) {
+			return Optional.of(cached);
+		}
+
+		Optional<Subscription> subscription = _subscriptionRepo.findByTenantIdAndId(tenantId, id);
+		subscription.ifPresent(s -> _subscriptionsById.put(id, s));
+		return subscription;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invalidate(TenantId tenantId, TriggerId triggerId) {
+		afterCommit(new CacheKey(tenantId.toString(), triggerId.toString()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invalidate(TenantId tenantId) {
+		afterCommit(new CacheKey(tenantId.toString(), null));
+	}
+
+	/**
+	 * Invalidate the subscriptions once the current transaction, if any, commits. Invalidating earlier would allow
+	 * another request to cache the subscriptions as they were before the transaction.
+	 */
+	private void afterCommit(CacheKey key) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidateAndPublish(key);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				invalidateAndPublish(key);
+			}
+		});
+	}
+
+	private void invalidateAndPublish(CacheKey key) {
+		invalidateLocally(key);
+
+		JobSubmission jobSubmission = new JobSubmission(new Payload(INVALIDATION_PAYLOAD_TYPE, key));
+		_messageClientService.submitJob(IdnMessageScope.ETS, jobSubmission, new SendMessageOptions());
+	}
+
+	@MessageHandler(scope = IdnMessageScope.ETS, payloadType = INVALIDATION_PAYLOAD_TYPE)
+	public void handleInvalidation(MessageHandlerContext context) {
+		CacheKey key = context.getMessageContent(CacheKey.class);
+		if (key == null || key.getTenantId() == null) {
+			return;
+		}
+		invalidateLocally(key);
+	}
+
+	/**
+	 * Invalidate the subscriptions and their decrypted material of this ETS instance only, and refresh its
+	 * {@link SubscribedTriggerSet}.
+	 */
+	private void invalidateLocally(CacheKey key) {
+		TenantId tenantId = new TenantId(key.getTenantId());
+		if (key.getTriggerId() != null) {
+			TriggerId triggerId = new TriggerId(key.getTriggerId());
+			_subscriptions.invalidate(key);
+			_subscriptionsById.asMap().values()
+				.removeIf(s -> s.getTenantId().equals(tenantId) && triggerId.equals(s.getTriggerId()));
+			_decryptedSubscriptions.invalidate(tenantId, triggerId);
+			_subscribedTriggers.refresh(tenantId, triggerId);
+		} else {
+			_subscriptions.asMap().keySet().removeIf(k -> k.getTenantId().equals(key.getTenantId()));
+			_subscriptionsById.asMap().values().removeIf(s -> s.getTenantId().equals(tenantId));
+			_decryptedSubscriptions.invalidate(tenantId);
+			_subscribedTriggers.refresh(tenantId);
+		}
+		log.debug("Invalidated subscriptions of tenant " + key.getTenantId() + " for trigger " + key.getTriggerId());
+	}
+
+	/**
+	 * Cache key, also the content of invalidation messages. A null trigger ID stands for all the triggers.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class CacheKey {
+		private String _tenantId;
+		private String _triggerId;
+	}
+}
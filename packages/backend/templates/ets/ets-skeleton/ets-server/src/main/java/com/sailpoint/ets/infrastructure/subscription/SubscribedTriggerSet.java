@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.SubscribedTrigger;
+import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory set of the triggers each tenant has at least one enabled subscription to. Lets event sources drop
+ * events of tenants that are not subscribed to the trigger before any parsing or database work.
+ *
+ * The set is loaded at startup and refreshed by {@link MessagingSubscriptionCache} whenever the subscriptions of a
+ * tenant change on any ETS instance. It is also reloaded in full every subscription cache expiry, so a lost
+ * invalidation message drops the events of a newly subscribed tenant for that long at most.
+ */
+@Component
+@CommonsLog
+@RequiredArgsConstructor(onConstructor_ = {@Autowired})
+public class SubscribedTriggerSet {
+
+	private final SubscriptionRepo _subscriptionRepo;
+
+	private final Set<SubscribedTrigger> _subscribedTriggers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Tenants refreshed since the current reload started, whose triggers the reload snapshot may predate.
+	 */
+	private final Set<TenantId> _refreshedTenants = ConcurrentHashMap.newKeySet();
+
+	@PostConstruct
+	public void init() {
+		// Only ever adds, so a refresh that ran concurrently is never undone by this older snapshot
+		_subscribedTriggers.addAll(_subscriptionRepo.findAllSubscribedTriggers());
+		log.info("Loaded " + _subscribedTriggers.size() + " subscribed triggers");
+	}
+
+	/**
+	 * Reload the whole set, picking up changes whose invalidation message never made it to this instance.
+	 */
+	@Scheduled(fixedDelayString = "#{${ets.subscriptionCacheExpirySeconds:300} * 1000}",
+		initialDelayString = "#{${ets.subscriptionCacheExpirySeconds:300} * 1000}")
+	public void reload() {
+		try {
+			_refreshedTenants.clear();
+			Set<SubscribedTrigger> current = new HashSet<>(_subscriptionRepo.findAllSubscribedTriggers());
+
+			// Triggers of tenants refreshed meanwhile are only ever added, never removed based on the older snapshot
+			_subscribedTriggers.addAll(current);
+			_subscribedTriggers.removeIf(s -> !current.contains(s) && !_refreshedTenants.contains(s.getTenantId()));
+			log.debug("Reloaded " + current.size() + " subscribed triggers");
+		} catch (Exception e) {
+			log.error("error reloading subscribed triggers", e);
+		}
+	}
+
+	/**
+	 * Check if the tenant has at least one enabled subscription to the trigger.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 * @return true if the tenant is subscribed to the trigger. False otherwise.
+	 */
+	public boolean isSubscribed(TenantId tenantId, TriggerId triggerId) {
+		return _subscribedTriggers.contains(new SubscribedTrigger(tenantId, triggerId));
+	}
+
+	/**
+	 * Reload whether the tenant is subscribed to the trigger.
+	 * @param tenantId the tenant ID.
+	 * @param triggerId the trigger ID.
+	 */
+	public void refresh(TenantId tenantId, TriggerId triggerId) {
+		_refreshedTenants.add(tenantId);
+		SubscribedTrigger subscribedTrigger = new SubscribedTrigger(tenantId, triggerId);
+		if (_subscriptionRepo.existsByTenantIdAndTriggerIdAndEnabledTrue(tenantId, triggerId)) {
+			_subscribedTriggers.add(subscribedTrigger);
+		} else {
+			_subscribedTriggers.remove(subscribedTrigger);
+		}
+	}
+
+	/**
+	 * Reload the triggers the tenant is subscribed to.
+	 * @param tenantId the tenant ID.
+	 */
+	public void refresh(TenantId tenantId) {
+		_refreshedTenants.add(tenantId);
+		Set<SubscribedTrigger> current = new HashSet<>(_subscriptionRepo.findAllSubscribedTriggersByTenantId(tenantId));
+
+		_subscribedTriggers.addAll(current);
+		_subscribedTriggers.removeIf(s -> s.getTenantId().equals(tenantId) && !current.contains(s));
+	}
+}
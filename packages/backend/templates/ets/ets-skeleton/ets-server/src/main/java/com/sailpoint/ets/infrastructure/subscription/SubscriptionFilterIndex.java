@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
+import com.sailpoint.utilities.StringUtil;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routing index over the filters of the subscriptions of a single tenant and trigger.
+ *
+ * Filters that only test a definite path for existence ({@code $.a.b}) or an element of a definite path for string
+ * equality ({@code $.a[?(@.b == 'value')]}) are grouped by the paths they test. Matching resolves each distinct path
+ * once per event and looks the found values up in the group, instead of evaluating every filter on its own. Any
+ * other filter is evaluated with its compiled JsonPath.
+ *
+ * JsonPath compares a string literal with a string field as strings, and with a number field as numbers, should the
+ * literal be a number. Boolean, null and object fields never equal a string literal. Only filters whose literal is
+ * not a number are indexed, as they can only match string fields equal to the literal.
+ */
+class SubscriptionFilterIndex {
+
+	private static final String PATH = "((?:\\.[A-Za-z_][A-Za-z0-9_]*)*)";
+	private static final Pattern SIMPLE_FILTER = Pattern.compile("^\\$" + PATH +
+		"(?:\\[\\?\\(@((?:\\.[A-Za-z_][A-Za-z0-9_]*)+)\\s*==\\s*(?:'([^'\\\\]*)'|\"([^\"\\\\]*)\")\\s*\\)])?$");
+
+	private final Map<UUID, Long> _versions = new HashMap<>();
+	private final Set<UUID> _unfiltered = new HashSet<>();
+	private final Map<List<String>, List<UUID>> _existence = new LinkedHashMap<>();
+	private final Map<EqualitySelector, Map<String, List<UUID>>> _equality = new LinkedHashMap<>();
+	private final Map<UUID, JsonPath> _compiled = new LinkedHashMap<>();
+	private final Map<UUID, RuntimeException> _invalid = new HashMap<>();
+
+	private SubscriptionFilterIndex() {
+	}
+
+	/**
+	 * Build the index for the subscriptions of a tenant and trigger.
+	 * @param subscriptions the subscriptions.
+	 * @param compiler compiles the filter of a subscription that can not be indexed.
+	 * @return the index.
+	 */
+	static SubscriptionFilterIndex build(Collection<Subscription> subscriptions, Function<Subscription, JsonPath> compiler) {
+		SubscriptionFilterIndex index = new SubscriptionFilterIndex();
+		for (Subscription subscription : subscriptions) {
+			UUID id = subscription.getId();
+			index._versions.put(id, subscription.getVersion());
+
+			if (StringUtil.isNullOrEmpty(subscription.getFilter())) {
+				index._unfiltered.add(id);
+				continue;
+			}
+
+			Matcher matcher = SIMPLE_FILTER.matcher(subscription.getFilter().trim());
+			if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2) == null)) {
+				List<String> path = toPath(matcher.group(1));
+				String value = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+				if (matcher.group(2) == null) {
+					index._existence.computeIfAbsent(path, p -> new ArrayList<>()).add(id);
+					continue;
+				} else if (!isNumber(value)) {
+					index._equality.computeIfAbsent(new EqualitySelector(path, toPath(matcher.group(2))), s -> new HashMap<>())
+						.computeIfAbsent(value, v -> new ArrayList<>())
+						.add(id);
+					continue;
+				}
+			}
+
+			try {
+				index._compiled.put(id, compiler.apply(subscription));
+			} catch (RuntimeException e) {
+				index._invalid.put(id, e);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Check if the index still reflects the given subscriptions, i.e. no subscription was added, removed or updated.
+	 * @param subscriptions the current subscriptions of the tenant and trigger.
+	 * @return true if the index is current. False otherwise.
+	 */
+	boolean isCurrent(Collection<Subscription> subscriptions) {
+		if (subscriptions.size() != _versions.size()) {
+			return false;
+		}
+		for (Subscription subscription : subscriptions) {
+			Long version = _versions.get(subscription.getId());
+			if (version == null || version != subscription.getVersion()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of subscriptions that have a filter.
+	 */
+	int getFilteredCount() {
+		return _versions.size() - _unfiltered.size();
+	}
+
+	/**
+	 * Match the input of an event against all indexed filters.
+	 * @param input the trigger input.
+	 * @return the result of the match.
+	 */
+	Result match(Map<String, Object> input) {
+		Set<UUID> matched = new HashSet<>();
+
+		_existence.forEach((path, ids) -> {
+			Object value = resolve(input, path);
+			if (value != null && !(value instanceof Collection && ((Collection<?>)value).isEmpty())) {
+				matched.addAll(ids);
+			}
+		});
+
+		_equality.forEach((selector, ids) -> {
+			for (Object candidate : candidates(resolve(input, selector.getPath()))) {
+				Object value = resolve(candidate, selector.getFieldPath());
+				if (value instanceof String) {
+					matched.addAll(ids.getOrDefault(value, Collections.emptyList()));
+				}
+			}
+		});
+
+		Map<UUID, RuntimeException> failures = new HashMap<>(_invalid);
+		if (!_compiled.isEmpty()) {
+			DocumentContext document = JsonPath.parse(input);
+			_compiled.forEach((id, filter) -> {
+				try {
+					if (JsonPathSubscriptionFilterEngine.matches(filter, document)) {
+						matched.add(id);
+					}
+				} catch (RuntimeException e) {
+					failures.put(id, e);
+				}
+			});
+		}
+
+		return new Result(matched, failures);
+	}
+
+	/**
+	 * Check if JsonPath reads a string literal as a number when comparing it with a number field.
+	 */
+	private static boolean isNumber(String literal) {
+		try {
+			new BigDecimal(literal);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static List<String> toPath(String path) {
+		return path.isEmpty() ? Collections.emptyList() : Arrays.asList(path.substring(1).split("\\."));
+	}
+
+	/**
+	 * Resolve a definite path of plain properties, null if any of its properties is missing.
+	 */
+	private static Object resolve(Object value, List<String> path) {
+		Object current = value;
+		for (String property : path) {
+			if (!(current instanceof Map)) {
+				return null;
+			}
+			current = ((Map<?, ?>)current).get(property);
+		}
+		return current;
+	}
+
+	/**
+	 * Values a JsonPath filter predicate is applied to: the elements of an array, or the object itself.
+	 */
+	private static Collection<?> candidates(Object value) {
+		if (value instanceof List) {
+			return (List<?>)value;
+		} else if (value instanceof Map) {
+			return Collections.singletonList(value);
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Path of the array (or object) the predicate is applied to, and path of the compared field within its elements.
+	 */
+	@Value
+	private static class EqualitySelector {
+		List<String> _path;
+		List<String> _fieldPath;
+	}
+
+	/**
+	 * Result of matching the input of an event against the index.
+	 */
+	class Result implements SubscriptionFilterEngine.FilterInput {
+		private final Set<UUID> _matched;
+		private final Map<UUID, RuntimeException> _failures;
+
+		Result(Set<UUID> matched, Map<UUID, RuntimeException> failures) {
+			_matched = matched;
+			_failures = failures;
+		}
+
+		/**
+		 * @return the number of subscriptions with a filter that matched the input.
+		 */
+		int getMatchedCount() {
+			return _matched.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean matches(Subscription subscription) {
+			RuntimeException failure = _failures.get(subscription.getId());
+			if (failure != null) {
+				throw failure;
+			}
+			return _unfiltered.contains(subscription.getId()) || _matched.contains(subscription.getId());
+		}
+	}
+}
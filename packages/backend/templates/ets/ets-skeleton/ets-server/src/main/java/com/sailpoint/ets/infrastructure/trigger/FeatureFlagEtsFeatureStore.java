@@ -3,21 +3,39 @@
  */
 package com.sailpoint.ets.infrastructure.trigger;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.sailpoint.atlas.featureflag.FeatureFlagService;
-import com.sailpoint.ets.domain.subscription.SubscriptionType;
+import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.TriggerId;
-import lombok.RequiredArgsConstructor;
+import com.sailpoint.ets.infrastructure.util.WebUtil;
+import lombok.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 /**
- * FeatureFlagEtsFeatureStore is an implementation for {@link EtsFeatureStore} that is based on atlas feature flag
+ * FeatureFlagEtsFeatureStore is an implementation for {@link EtsFeatureStore} that is based on atlas feature flag.
+ * Flag values are cached per tenant for a configurable time, so invocations do not query the feature flag service
+ * for every event.
  */
 @Component
-@RequiredArgsConstructor(onConstructor_ = {@Autowired})
 public class FeatureFlagEtsFeatureStore implements EtsFeatureStore {
 	private final FeatureFlagService _featureFlagService;
+	private final Cache<FeatureFlagKey, Boolean> _featureFlags;
+
+	@Autowired
+	public FeatureFlagEtsFeatureStore(FeatureFlagService featureFlagService, EtsProperties properties) {
+		_featureFlagService = featureFlagService;
+		_featureFlags = CacheBuilder.newBuilder()
+			.maximumSize(properties.getFeatureFlagCacheSize())
+			.expireAfterWrite(properties.getFeatureFlagCacheExpirySeconds(), TimeUnit.SECONDS)
+			.build();
+	}
 
 	/**
 	 * {@inheritDoc}
@@ -25,6 +43,30 @@ public class FeatureFlagEtsFeatureStore implements EtsFeatureStore {
 	@Override
 	public boolean isEnabledForTenant(TriggerId triggerId) {
 		String triggerFlag = EtsFeatureStore.getFeatureKey(triggerId);
-		return _featureFlagService.getBoolean(triggerFlag, false);
+		FeatureFlagKey key = new FeatureFlagKey(WebUtil.getCurrentTenantId().toString(), triggerFlag);
+
+		try {
+			return _featureFlags.get(key, () -> _featureFlagService.getBoolean(triggerFlag, false));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void refresh() {
+		String tenantId = WebUtil.getCurrentTenantId().toString();
+		_featureFlags.asMap().keySet().removeIf(key -> key.getTenantId().equals(tenantId));
+	}
+
+	@Value
+	private static class FeatureFlagKey {
+		String _tenantId;
+		String _featureKey;
 	}
 }
@@ -8,8 +8,10 @@ import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 import com.sailpoint.atlas.event.idn.IdnTopic;
 import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.trigger.AvroSchema;
 import com.sailpoint.ets.domain.trigger.EventSource;
 import com.sailpoint.ets.domain.trigger.JsonSchema;
+import com.sailpoint.ets.domain.trigger.Schema;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.TriggerDescription;
 import com.sailpoint.ets.domain.trigger.TriggerId;
@@ -45,6 +47,7 @@ import static java.util.Objects.requireNonNull;
 public class JsonTriggerRepo implements TriggerRepo {
 
 	public static final String TRIGGER_SCHEMA_PATH = "/triggers/jsonSchema/";
+	public static final String TRIGGER_AVRO_SCHEMA_PATH = "/triggers/avroSchema/";
 
 	private final Map<TriggerId, Trigger> _triggers = new HashMap<>();
 	private final Map<String, TriggerId> _eventSourceMapping = new HashMap<>();
@@ -67,7 +70,14 @@ public class JsonTriggerRepo implements TriggerRepo {
 						throw new IllegalStateException("Trigger must have name define");
 					}
 
-					addTrigger(jsonSchemaDescriptor);
+					addTrigger(jsonSchemaDescriptor, false);
+				}
+			}
+
+			// Avro definitions replace the json schema definitions of the same triggers
+			if (etsProperties.isAvroTriggersEnabled()) {
+				for (TriggerDescriptor avroSchemaDescriptor : getJsonFromDir(TRIGGER_AVRO_SCHEMA_PATH).triggers) {
+					addTrigger(avroSchemaDescriptor, true);
 				}
 			}
 		} catch (Throwable e) {
@@ -127,8 +137,9 @@ public class JsonTriggerRepo implements TriggerRepo {
 	/**
 	 * Parse and validate trigger from descriptor and put it into the trigger map
 	 * @param jsonSchemaDescriptor trigger descriptor.
+	 * @param avro true if the schemas of the descriptor are Avro schemas, false if they are json schemas.
 	 */
-	private void addTrigger(TriggerDescriptor jsonSchemaDescriptor) {
+	private void addTrigger(TriggerDescriptor jsonSchemaDescriptor, boolean avro) {
 		TriggerId id = new TriggerId(jsonSchemaDescriptor.id);
 		TriggerName name = new TriggerName(jsonSchemaDescriptor.name);
 		TriggerType type = TriggerType.valueOf(jsonSchemaDescriptor.type);
@@ -138,7 +149,7 @@ public class JsonTriggerRepo implements TriggerRepo {
 		Map<String, Object> exampleOutput = jsonSchemaDescriptor.exampleOutput;
 
 		//building out schemas
-		JsonSchema inputJsonSchema = new JsonSchema(jsonSchemaDescriptor.inputSchema, getJsonSchemaGeneratedDtoClass(jsonSchemaDescriptor, false));
+		Schema inputJsonSchema = buildSchema(jsonSchemaDescriptor, false, avro);
 
 		//validate
 		inputJsonSchema.validate(jsonSchemaDescriptor.exampleInput);
@@ -156,7 +167,8 @@ public class JsonTriggerRepo implements TriggerRepo {
 		// Conditionally add output schema and example base on trigger type
 		if (type == TriggerType.REQUEST_RESPONSE) {
 			//building out schema
-			JsonSchema outputJsonSchema = new JsonSchema(requireNonNull(jsonSchemaDescriptor.outputSchema, "output schema is required"), getJsonSchemaGeneratedDtoClass(jsonSchemaDescriptor, true));
+			requireNonNull(jsonSchemaDescriptor.outputSchema, "output schema is required");
+			Schema outputJsonSchema = buildSchema(jsonSchemaDescriptor, true, avro);
 
 			//Validate
 			outputJsonSchema.validateData(requireNonNull(jsonSchemaDescriptor.exampleOutput, "example output is required"));
@@ -190,6 +202,21 @@ public class JsonTriggerRepo implements TriggerRepo {
 		_triggers.put(id, builder.build());
 	}
 
+	/**
+	 * Build the input or output schema of a trigger.
+	 * @param descriptor trigger descriptor.
+	 * @param isOutputSchema true to build the output schema, false to build the input schema.
+	 * @param avro true if the schemas of the descriptor are Avro schemas, false if they are json schemas.
+	 * @return the schema.
+	 */
+	private Schema buildSchema(TriggerDescriptor descriptor, boolean isOutputSchema, boolean avro) {
+		Map<String, Object> schema = isOutputSchema ? descriptor.outputSchema : descriptor.inputSchema;
+		if (avro) {
+			return new AvroSchema(schema);
+		}
+		return new JsonSchema(schema, getJsonSchemaGeneratedDtoClass(descriptor, isOutputSchema));
+	}
+
 	private String getJsonSchemaGeneratedDtoClass(TriggerDescriptor descriptor, boolean isOutputSchema){
 		String dtoClassPrefix = "com.sailpoint.ets.domain.trigger.schemaGeneratedDto.";
 
@@ -246,6 +273,8 @@ public class JsonTriggerRepo implements TriggerRepo {
 		Resource[] resources = getResources();
 		if (path.contains("json")){
 			resources = getJsonResources();
+		} else if (path.contains("avro")) {
+			resources = getAvroResources();
 		}
 
 
@@ -290,6 +319,11 @@ public class JsonTriggerRepo implements TriggerRepo {
 		return resolver.getResources("classpath:triggers/jsonSchema/*.json");
 	}
 
+	public Resource[] getAvroResources() throws IOException {
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(getClass().getClassLoader());
+		return resolver.getResources("classpath:triggers/avroSchema/*.json");
+	}
+
 
 	/**
 	 * Read external JSON file, parses it and returns its content.
@@ -9,6 +9,7 @@ import com.sailpoint.atlas.boot.core.web.TenantIdentifier;
 import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
 import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.status.SubscriptionStatus;
+import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerType;
 import com.sailpoint.ets.infrastructure.web.dto.ResponseMode;
@@ -36,6 +37,23 @@ public class MetricsReporter {
 	private static final String CIRCUIT_BREAKER_STATE_CHANGE_COUNT = MetricsReporter.class.getName() +
 		".circuit.breaker.state.change.count";
 	private static final String TENANT_SUBSCRIPTION_COUNT = MetricsReporter.class.getName() + ".tenant-subscription.count";
+	private static final String SUBSCRIPTION_FILTER_EVALUATED_TOTAL = MetricsReporter.class.getName() + ".subscription-filter.evaluated.total";
+	private static final String SUBSCRIPTION_FILTER_MATCHED_TOTAL = MetricsReporter.class.getName() + ".subscription-filter.matched.total";
+	private static final String SUBSCRIPTION_FILTER_LATENCY = MetricsReporter.class.getName() + ".subscription-filter.latency";
+	private static final String SUBSCRIPTION_CACHE_LOOKUP_TOTAL = MetricsReporter.class.getName() + ".subscription-cache.lookup.total";
+	private static final String DECRYPTED_SUBSCRIPTION_CACHE_LOOKUP_TOTAL = MetricsReporter.class.getName() + ".decrypted-subscription-cache.lookup.total";
+	private static final String OUTBOX_BATCH_EVENTS_TOTAL = MetricsReporter.class.getName() + ".outbox.batch.events.total";
+	private static final String OUTBOX_BATCH_LATENCY = MetricsReporter.class.getName() + ".outbox.batch.latency";
+	private static final String OUTBOX_OLDEST_EVENT_AGE = MetricsReporter.class.getName() + ".outbox.oldest-event.age";
+	private static final String OUTBOX_TOPIC_DEPTH = MetricsReporter.class.getName() + ".outbox.topic.depth";
+	private static final String OUTBOX_PUBLISH_LATENCY = MetricsReporter.class.getName() + ".outbox.publish.latency";
+	private static final String OUTBOX_TRUNCATION_TOTAL = MetricsReporter.class.getName() + ".outbox.truncation.total";
+	private static final String OUTBOX_EVENT_BYTES_TOTAL = MetricsReporter.class.getName() + ".outbox.event.bytes.total";
+	private static final String LOCAL_DISPATCH_TOTAL = MetricsReporter.class.getName() + ".local-dispatch.total";
+	private static final String LAMBDA_INVOCATION_LATENCY = MetricsReporter.class.getName() + ".lambda.invocation.latency";
+	private static final String PARTNER_EVENT_BATCH_TOTAL = MetricsReporter.class.getName() + ".partner-event.batch.total";
+	private static final String PARTNER_EVENT_ENTRIES_TOTAL = MetricsReporter.class.getName() + ".partner-event.entries.total";
+	private static final String PARTNER_EVENT_BATCH_LATENCY = MetricsReporter.class.getName() + ".partner-event.batch.latency";
 
 	/**
 	 * Increment trigger invocation started counter.
@@ -164,6 +182,165 @@ public class MetricsReporter {
 		});
 	}
 
+	/**
+	 * Report the evaluation of the subscription filters of a trigger against the input of one event. The match rate
+	 * of a trigger is the ratio of the matched to the evaluated counter.
+	 *
+	 * @param triggerId TriggerId of the event
+	 * @param evaluated Number of subscription filters evaluated
+	 * @param matched   Number of subscription filters that matched the input
+	 * @param nanos     Time spent evaluating the filters, in nanoseconds
+	 */
+	public static void reportSubscriptionFilterEvaluation(TriggerId triggerId, int evaluated, int matched, long nanos) {
+		if (triggerId == null || evaluated == 0) {
+			return;
+		}
+
+		Map<String, String> tags = new HashMap<>();
+		tags.put("triggerId", triggerId.toString());
+		MetricsUtil.getCounter(SUBSCRIPTION_FILTER_EVALUATED_TOTAL, tags).inc(evaluated);
+		MetricsUtil.getCounter(SUBSCRIPTION_FILTER_MATCHED_TOTAL, tags).inc(matched);
+		MetricsUtil.getTimer(SUBSCRIPTION_FILTER_LATENCY, tags).update(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Increment subscription cache lookup counter, with hit/miss tag.
+	 *
+	 * @param triggerId TriggerId of the looked up subscriptions
+	 * @param hit       True if the subscriptions were cached, false otherwise
+	 */
+	public static void reportSubscriptionCacheLookup(TriggerId triggerId, boolean hit) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("triggerId", triggerId.toString());
+		tags.put("result", hit ? "hit" : "miss");
+		MetricsUtil.getCounter(SUBSCRIPTION_CACHE_LOOKUP_TOTAL, tags).inc();
+	}
+
+	/**
+	 * Increment decrypted subscription cache lookup counter, with hit/miss tag. Every miss costs a KMS decryption.
+	 *
+	 * @param subscriptionType Type of the subscription whose material was looked up
+	 * @param hit              True if the decrypted material was cached, false otherwise
+	 */
+	public static void reportDecryptedSubscriptionCacheLookup(SubscriptionType subscriptionType, boolean hit) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("subscriptionType", subscriptionType.toString());
+		tags.put("result", hit ? "hit" : "miss");
+		MetricsUtil.getCounter(DECRYPTED_SUBSCRIPTION_CACHE_LOOKUP_TOTAL, tags).inc();
+	}
+
+	/**
+	 * Report a batch of events relayed from the event table to kafka.
+	 *
+	 * @param size  Number of events in the batch
+	 * @param nanos Time spent claiming, publishing and deleting the batch, in nanoseconds
+	 */
+	public static void reportOutboxBatch(int size, long nanos) {
+		MetricsUtil.getCounter(OUTBOX_BATCH_EVENTS_TOTAL, Collections.emptyMap()).inc(size);
+		MetricsUtil.getTimer(OUTBOX_BATCH_LATENCY, Collections.emptyMap()).update(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Set the age of the oldest event of the events table, zero when the table is empty.
+	 *
+	 * @param millis Age of the oldest event, in milliseconds
+	 */
+	public static void reportOutboxOldestEventAge(long millis) {
+		setGauge(MetricsUtil.getMetricsName(OUTBOX_OLDEST_EVENT_AGE, Collections.emptyMap()), millis);
+	}
+
+	/**
+	 * Set the number of events of a topic pending in the events table.
+	 *
+	 * @param topic Topic ID of the events
+	 * @param count Number of pending events
+	 */
+	public static void reportOutboxTopicDepth(String topic, long count) {
+		setGauge(MetricsUtil.getMetricsName(OUTBOX_TOPIC_DEPTH, ImmutableMap.of("topic", topic)), count);
+	}
+
+	/**
+	 * Measure the time from inserting an event into the events table to kafka acknowledging its publish.
+	 *
+	 * @param topic  Topic name of the event
+	 * @param millis Time the event spent in the outbox, in milliseconds
+	 */
+	public static void reportOutboxPublishLatency(String topic, long millis) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("topic", topic);
+		MetricsUtil.getTimer(OUTBOX_PUBLISH_LATENCY, tags).update(millis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Increment outbox truncation counter, with truncated/skipped tag. Skipped truncations found the drained event
+	 * table partition in use every time they tried to lock it.
+	 *
+	 * @param truncated True if the drained partition was truncated, false if it was skipped
+	 */
+	public static void reportOutboxTruncation(boolean truncated) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("result", truncated ? "truncated" : "skipped");
+		MetricsUtil.getCounter(OUTBOX_TRUNCATION_TOTAL, tags).inc();
+	}
+
+	/**
+	 * Increment the counters of event bytes written to the events table, with json/stored tag. The ratio of the
+	 * stored to the json counter is the compression ratio of the outbox.
+	 *
+	 * @param jsonLength   Number of bytes of the event JSON, UTF-8 encoded
+	 * @param storedLength Number of bytes actually stored
+	 */
+	public static void reportOutboxEventSize(int jsonLength, int storedLength) {
+		MetricsUtil.getCounter(OUTBOX_EVENT_BYTES_TOTAL, ImmutableMap.of("form", "json")).inc(jsonLength);
+		MetricsUtil.getCounter(OUTBOX_EVENT_BYTES_TOTAL, ImmutableMap.of("form", "stored")).inc(storedLength);
+	}
+
+	/**
+	 * Increment local dispatch counter, with accepted/rejected tag. Rejected invocations are relayed through kafka.
+	 *
+	 * @param accepted True if the invocation was queued for local dispatch, false otherwise
+	 */
+	public static void reportLocalDispatch(boolean accepted) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("result", accepted ? "accepted" : "rejected");
+		MetricsUtil.getCounter(LOCAL_DISPATCH_TOTAL, tags).inc();
+	}
+
+	/**
+	 * Measure a lambda invocation from dispatch to response, with status tag.
+	 *
+	 * @param status Status code of the response, error if the invocation threw
+	 * @param nanos  Time from dispatch to response, in nanoseconds
+	 */
+	public static void reportLambdaInvocation(String status, long nanos) {
+		Map<String, String> tags = new HashMap<>();
+		tags.put("status", status);
+		MetricsUtil.getTimer(LAMBDA_INVOCATION_LATENCY, tags).update(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Report a PutPartnerEvents batch. The ratio of the entries to the batch counter is the average batch fill.
+	 *
+	 * @param size   Number of entries in the batch
+	 * @param failed Number of entries that failed
+	 * @param nanos  Time spent sending the batch, in nanoseconds
+	 */
+	public static void reportPartnerEventBatch(int size, int failed, long nanos) {
+		MetricsUtil.getCounter(PARTNER_EVENT_BATCH_TOTAL, Collections.emptyMap()).inc();
+		MetricsUtil.getCounter(PARTNER_EVENT_ENTRIES_TOTAL, ImmutableMap.of("status", "success")).inc(size - failed);
+		MetricsUtil.getCounter(PARTNER_EVENT_ENTRIES_TOTAL, ImmutableMap.of("status", "failure")).inc(failed);
+		MetricsUtil.getTimer(PARTNER_EVENT_BATCH_LATENCY, Collections.emptyMap()).update(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private static void setGauge(String metricsName, Number value) {
+		if (!MetricsUtil.getRegistry().getNames().contains(metricsName)) {
+			MetricsUtil.getRegistry().register(metricsName, new NumberGauge(value));
+		} else {
+			NumberGauge gauge = (NumberGauge) MetricsUtil.getRegistry().getGauges().get(metricsName);
+			gauge.setValue(value);
+		}
+	}
+
 	protected static final class NumberGauge implements Gauge<Number> {
 		Number _number;
 
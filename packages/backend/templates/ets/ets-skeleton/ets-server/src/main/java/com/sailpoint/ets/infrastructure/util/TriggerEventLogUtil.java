@@ -13,8 +13,6 @@ import com.sailpoint.ets.domain.status.InvocationStatus;
 import com.sailpoint.ets.domain.status.InvocationType;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.TriggerId;
-import com.sailpoint.ets.domain.trigger.TriggerType;
-import com.sailpoint.ets.infrastructure.aws.HttpInvocationPayload;
 import com.sailpoint.ets.infrastructure.aws.InvocationPayload;
 import com.sailpoint.utilities.JsonUtil;
 
@@ -168,7 +166,7 @@ public class TriggerEventLogUtil {
 	}
 
 	/**
-	 * Get sanitized JSON log of {@link InvocationPayload} sent to Lambda.
+	 * Get sanitized JSON log of {@link InvocationPayload} sent to Lambda. Carries IDs only, not the payload content.
 	 *
 	 * @param message Log message
 	 * @param subscriptionId the subscription id of the invocation
@@ -185,15 +183,10 @@ public class TriggerEventLogUtil {
 		dispatchLog.put("subscriptionId", subscriptionId);
 		dispatchLog.put("subscriptionType",CamelCaseUtil.toCamelCase(subscriptionType));
 
-		if (CamelCaseUtil.toCamelCase(TriggerType.REQUEST_RESPONSE).equals(payload.getTriggerType())) {
-			dispatchLog.put("callbackUrl", payload.getCallbackUrl());
+		if (payload.getResponseMode() != null) {
 			dispatchLog.put("responseMode", payload.getResponseMode());
 		}
 
-		if (payload instanceof HttpInvocationPayload) {
-			dispatchLog.put("url", ((HttpInvocationPayload) payload).getUrl());
-		}
-
 		return JsonUtil.toJson(dispatchLog);
 	}
 
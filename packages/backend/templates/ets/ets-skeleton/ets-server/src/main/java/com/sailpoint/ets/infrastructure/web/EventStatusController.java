@@ -4,7 +4,6 @@
 package com.sailpoint.ets.infrastructure.web;
 
 import com.google.common.collect.ImmutableMap;
-import com.sailpoint.ets.infrastructure.event.PersistedEvent;
 import com.sailpoint.ets.infrastructure.web.dto.EventStatusDto;
 import com.sailpoint.ets.service.TriggerService;
 import com.sailpoint.metrics.annotation.Metered;
@@ -17,13 +16,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import static java.util.stream.Collectors.groupingBy;
+import java.util.stream.Collectors;
 
 /**
  * Event Status Controller
@@ -66,19 +63,13 @@ public class EventStatusController extends EtsBaseController<EventStatusDto> {
 	@PreAuthorize("hasRole('idn:trigger-service-invocation-status:read')")
 	@GetMapping("/pending-events")
 	public ResponseEntity listEvents() {
-		List<EventStatusDto> eventStatusDtos = new ArrayList<>();
-
-		_triggerService.listEvents()
+		List<EventStatusDto> eventStatusDtos = _triggerService.countEventsByTopic()
 			.stream()
-			.collect(groupingBy(PersistedEvent::getTopic))
-			.forEach((topic, persistedEvents) ->
-				eventStatusDtos.add(
-					EventStatusDto.builder()
-						.topic(topic)
-						.count(persistedEvents.size())
-						.build()
-				)
-			);
+			.map(topicEventCount -> EventStatusDto.builder()
+				.topic(topicEventCount.getTopic())
+				.count((int)topicEventCount.getCount())
+				.build())
+			.collect(Collectors.toList());
 
 		return okResponse(eventStatusDtos, getQueryOptions(), _eventsStatusDtoComparatorMap,
 			_eventsStatusDtoPropertyMap);
@@ -13,7 +13,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.sailpoint.atlas.RequestContext;
 import com.sailpoint.atlas.util.AwsEncryptionServiceUtil;
-import com.sailpoint.atlas.util.JsonPathUtil;
 import com.sailpoint.cloud.api.client.model.BaseReferenceDto;
 import com.sailpoint.cloud.api.client.model.DtoType;
 import com.sailpoint.config.export.ExportedObject;
@@ -25,6 +24,7 @@ import com.sailpoint.ets.domain.command.SubscribeCommand;
 import com.sailpoint.ets.domain.command.UnsubscribeCommand;
 import com.sailpoint.ets.domain.command.UpdateSubscriptionCommand;
 import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.subscription.SubscriptionSpecification;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.TriggerId;
@@ -45,7 +45,6 @@ import com.sailpoint.ets.infrastructure.web.dto.SubscriptionDto;
 import com.sailpoint.ets.infrastructure.web.dto.SubscriptionFilterValidationDto;
 import com.sailpoint.ets.service.TriggerService;
 import com.sailpoint.metrics.annotation.Timed;
-import com.sailpoint.utilities.JsonUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.apachecommons.CommonsLog;
 import org.modelmapper.ModelMapper;
@@ -106,6 +105,7 @@ public class SubscriptionController extends EtsBaseController<SubscriptionDto> {
 	private final ModelMapper _modelMapper;
 	private final ValidatorService _validatorService;
 	private final AwsEncryptionServiceUtil _awsEncryptionServiceUtil;
+	private final SubscriptionFilterEngine _filterEngine;
 
 	/**
 	 * {@inheritDoc}
@@ -266,12 +266,11 @@ public class SubscriptionController extends EtsBaseController<SubscriptionDto> {
 	@PreAuthorize("hasRole('idn:trigger-service-subscriptions-validate-filter:create')")
 	@PostMapping("/validate-filter")
 	public ResponseEntity validateFilter(@Valid @RequestBody SubscriptionFilterValidationDto filterValidationDto) {
-		boolean isValidPath = JsonPathUtil.isValidPath(filterValidationDto.getFilter());
+		boolean isValidPath = _filterEngine.isValid(filterValidationDto.getFilter());
 		boolean isPathExist = false;
 		if (isValidPath) {
-			String input = JsonUtil.toJson(filterValidationDto.getInput());
 			try {
-				isPathExist = JsonPathUtil.isPathExist(input, filterValidationDto.getFilter());
+				isPathExist = _filterEngine.matches(filterValidationDto.getFilter(), filterValidationDto.getInput());
 			} catch (Exception ignored) {
 				isPathExist = false;
 			}
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableMap;
 import com.sailpoint.atlas.RequestContext;
 import com.sailpoint.atlas.event.idn.IdnTopic;
 import com.sailpoint.atlas.messaging.client.impl.redis.RedisPool;
+import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.utilities.JsonUtil;
 
 import com.sailpoint.iris.client.Event;
@@ -44,6 +45,7 @@ public class EtsDebugController {
 
 	private final RedisPool _redisPool;
 	private final EventPublisher _irisEventPublisher;
+	private final EtsFeatureStore _etsFeatureStore;
 
 	@PostMapping(value = "/invocations/success",
 		consumes="application/json",
@@ -97,6 +99,13 @@ public class EtsDebugController {
 		return ResponseEntity.ok(eventContent);
 	}
 
+	@PreAuthorize("hasRole('idn:trigger-service-debug:create')")
+	@PostMapping("/feature-flags/refresh")
+	public ResponseEntity refreshFeatureFlags() {
+		_etsFeatureStore.refresh();
+		return ResponseEntity.noContent().build();
+	}
+
 	/**
 	 * Retrieves the value for the given key from Redis.
 	 * @param key redis key
@@ -4,14 +4,13 @@
 package com.sailpoint.ets.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableList;
-import com.sailpoint.atlas.util.AwsEncryptionServiceUtil;
 import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.domain.TenantId;
 import com.sailpoint.ets.domain.command.CompleteExpiredInvocationsCommand;
 import com.sailpoint.ets.domain.command.CompleteInvocationCommand;
 import com.sailpoint.ets.domain.command.DeleteTenantCommand;
 import com.sailpoint.ets.domain.command.DispatchInvocationCommand;
+import com.sailpoint.ets.domain.command.FailDispatchedInvocationCommand;
 import com.sailpoint.ets.domain.command.InvokeTestTriggerCommand;
 import com.sailpoint.ets.domain.command.InvokeTriggerCommand;
 import com.sailpoint.ets.domain.command.SubscribeCommand;
@@ -20,35 +19,42 @@ import com.sailpoint.ets.domain.command.UpdateSubscriptionCommand;
 import com.sailpoint.ets.domain.command.status.CompleteInvocationStatusCommand;
 import com.sailpoint.ets.domain.command.status.CreateInvocationStatusCommand;
 import com.sailpoint.ets.domain.event.EventPublisher;
+import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
 import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.invocation.InvocationCallbackUrlProvider;
 import com.sailpoint.ets.domain.invocation.InvocationRepo;
 import com.sailpoint.ets.domain.status.InvocationStatus;
 import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerRepo;
+import com.sailpoint.ets.exception.NotFoundException;
 import com.sailpoint.ets.infrastructure.aws.Invoker;
-import com.sailpoint.ets.infrastructure.event.PersistedEvent;
 import com.sailpoint.ets.infrastructure.event.PersistedEventRepo;
+import com.sailpoint.ets.infrastructure.event.TopicEventCount;
 import com.sailpoint.ets.infrastructure.status.DynamoDBInvocationStatusRepo;
-import com.sailpoint.ets.infrastructure.util.HTTPConfigConverter;
+import com.sailpoint.ets.infrastructure.subscription.DecryptedSubscriptionCache;
 import com.sailpoint.ets.infrastructure.util.HashService;
-import com.sailpoint.ets.infrastructure.util.ScriptConfigConverter;
 import com.sailpoint.ets.service.breaker.CircuitBreakerService;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -59,6 +65,7 @@ import java.util.stream.Stream;
  * in this service represents a capability of the system.
  */
 @Component
+@CommonsLog
 @RequiredArgsConstructor(onConstructor_ = {@Autowired})
 public class TriggerService {
 
@@ -71,20 +78,14 @@ public class TriggerService {
 	private final InvocationCallbackUrlProvider _invocationCallbackUrlProvider;
 	private final HashService _hashService;
 	private final EtsProperties _properties;
-	private final AwsEncryptionServiceUtil _awsEncryptionServiceUtil;
 	private final CircuitBreakerService _circuitBreakerService;
 	private final EtsFeatureStore _etsFeatureStore;
 	private final DynamoDBInvocationStatusRepo _dynamoDBInvocationStatusRepo;
 	private final ObjectMapper _objectMapper;
-
-	private HTTPConfigConverter _httpConfigconverter;
-	private ScriptConfigConverter _scriptConfigconverter;
-
-	@PostConstruct
-	public void init() {
-		_httpConfigconverter = new HTTPConfigConverter(_awsEncryptionServiceUtil);
-		_scriptConfigconverter = new ScriptConfigConverter(_awsEncryptionServiceUtil);
-	}
+	private final SubscriptionFilterEngine _filterEngine;
+	private final SubscriptionCache _subscriptionCache;
+	private final DecryptedSubscriptionCache _decryptedSubscriptionCache;
+	private final TransactionTemplate _transactionTemplate;
 
 	/**
 	 * Lists all triggers in the system.
@@ -102,6 +103,43 @@ public class TriggerService {
 		return _triggerRepo.findById(triggerId);
 	}
 
+	/**
+	 * Gets the input of a trigger invoked event, decoding it if it was carried in the binary form of the trigger
+	 * input schema.
+	 *
+	 * @param event The trigger invoked event.
+	 * @return The input of the event.
+	 */
+	public Map<String, Object> getInput(TriggerInvokedEvent event) {
+		if (event.getEncodedInput() == null) {
+			return event.getInput();
+		}
+
+		Trigger trigger = _triggerRepo.findById(new TriggerId(event.getTriggerId()))
+			.orElseThrow(() -> new NotFoundException("trigger", event.getTriggerId()));
+		// Dispatch adds its metadata to the input
+		return new HashMap<>(trigger.decodeInput(event.getEncodedInput()));
+	}
+
+	/**
+	 * Gets the subscription of a trigger invoked event. Events reference the subscription by ID and version, events
+	 * published before that carry the subscription config and script themselves.
+	 *
+	 * @param event The trigger invoked event.
+	 * @return The subscription, empty if it was deleted since the invocation.
+	 */
+	public Optional<Subscription> getSubscription(TriggerInvokedEvent event) {
+		if (event.getSubscriptionVersion() == null) {
+			return Optional.of(Subscription.builder()
+				.config(event.getSubscriptionConfig())
+				.scriptSource(event.getScriptSource())
+				.build());
+		}
+
+		return _subscriptionCache.findByTenantIdAndId(new TenantId(event.getTenantId()),
+			UUID.fromString(event.getSubscriptionId()), event.getSubscriptionVersion());
+	}
+
 	/**
 	 * Lists the subscriptions for the specified tenant.
 	 *
@@ -151,13 +189,13 @@ public class TriggerService {
 	}
 
 	/**
-	 * Lists all persisted events.
+	 * Counts the persisted events of each topic.
 	 *
-	 * @return The list of persisted events.
+	 * @return The number of persisted events per topic.
 	 */
-	@Transactional
-	public List<PersistedEvent> listEvents() {
-		return ImmutableList.copyOf(_persistedEventRepo.findAll());
+	@Transactional(readOnly = true)
+	public List<TopicEventCount> countEventsByTopic() {
+		return _persistedEventRepo.countByTopic();
 	}
 
 	/**
@@ -168,7 +206,9 @@ public class TriggerService {
 	 */
 	@Transactional
 	public Subscription subscribe(SubscribeCommand cmd) {
-		return cmd.handle(_triggerRepo, _subscriptionRepo, _invoker, _etsFeatureStore, _properties);
+		Subscription subscription = cmd.handle(_triggerRepo, _subscriptionRepo, _invoker, _etsFeatureStore, _properties);
+		_subscriptionCache.invalidate(subscription.getTenantId(), subscription.getTriggerId());
+		return subscription;
 	}
 
 	/**
@@ -179,7 +219,9 @@ public class TriggerService {
 	 */
 	@Transactional
 	public Subscription updateSubscription(UpdateSubscriptionCommand cmd) {
-		return cmd.handle(_triggerRepo, _subscriptionRepo, _etsFeatureStore);
+		Subscription subscription = cmd.handle(_triggerRepo, _subscriptionRepo, _etsFeatureStore);
+		_subscriptionCache.invalidate(subscription.getTenantId(), subscription.getTriggerId());
+		return subscription;
 	}
 
 	/**
@@ -189,7 +231,8 @@ public class TriggerService {
 	 */
 	@Transactional
 	public void unsubscribe(UnsubscribeCommand cmd) {
-		cmd.handle(_subscriptionRepo, _invoker);
+		Subscription subscription = cmd.handle(_subscriptionRepo, _invoker);
+		_subscriptionCache.invalidate(subscription.getTenantId(), subscription.getTriggerId());
 	}
 
 	/**
@@ -200,7 +243,7 @@ public class TriggerService {
 	 */
 	@Transactional
 	public List<Invocation> invokeTrigger(InvokeTriggerCommand cmd) {
-		return cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		return cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 	}
 
 	/**
@@ -211,7 +254,7 @@ public class TriggerService {
 	 */
 	@Transactional
 	public List<Invocation> invokeTestTrigger(InvokeTestTriggerCommand cmd) {
-		return cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		return cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 	}
 
 	/**
@@ -225,15 +268,44 @@ public class TriggerService {
 	}
 
 	/**
-	 * Dispatches an invocation.
+	 * Dispatches an invocation. Lambda dispatch may wait for an in flight invocation to complete, so only workflow
+	 * dispatch, which publishes an event, runs in a transaction.
 	 *
 	 * @param cmd The input command.
 	 */
-	@Transactional
 	public void dispatchInvocation(DispatchInvocationCommand cmd) {
 		CircuitBreaker circuitBreaker = _circuitBreakerService.getCircuitBreaker(cmd.getTenantId().toString() + "_" + cmd.getTriggerId());
-		cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _httpConfigconverter,
-			_scriptConfigconverter, circuitBreaker, _objectMapper, _eventPublisher, _etsFeatureStore);
+		if (cmd.getSubscriptionType() != SubscriptionType.WORKFLOW) {
+			handleDispatch(cmd, circuitBreaker);
+			return;
+		}
+		_transactionTemplate.executeWithoutResult(status -> handleDispatch(cmd, circuitBreaker));
+	}
+
+	private void handleDispatch(DispatchInvocationCommand cmd, CircuitBreaker circuitBreaker) {
+		cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _decryptedSubscriptionCache,
+			circuitBreaker, _objectMapper, _eventPublisher, _etsFeatureStore, error -> failDispatchedInvocation(cmd, error));
+	}
+
+	/**
+	 * Fails an invocation whose lambda invocation failed for good.
+	 *
+	 * @param cmd The command that dispatched the invocation.
+	 * @param error The error of the lambda invocation.
+	 */
+	private void failDispatchedInvocation(DispatchInvocationCommand cmd, Exception error) {
+		FailDispatchedInvocationCommand failCmd = FailDispatchedInvocationCommand.builder()
+			.tenantId(cmd.getTenantId())
+			.triggerId(cmd.getTriggerId())
+			.invocationId(cmd.getInvocationId())
+			.error(error)
+			.build();
+		try {
+			_transactionTemplate.executeWithoutResult(status ->
+				failCmd.handle(_invocationRepo, _eventPublisher, _circuitBreakerService));
+		} catch (Exception e) {
+			log.error("error failing invocation " + cmd.getInvocationId() + ", leaving it to its deadline", e);
+		}
 	}
 
 	/**
@@ -256,6 +328,7 @@ public class TriggerService {
 	@Transactional
 	public void deleteTenant(DeleteTenantCommand cmd) {
 		cmd.handle(_subscriptionRepo, _invocationRepo);
+		_subscriptionCache.invalidate(cmd.getTenantId());
 	}
 
 	/**
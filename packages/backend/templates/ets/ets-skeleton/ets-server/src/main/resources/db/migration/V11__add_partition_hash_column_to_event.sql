@@ -0,0 +1 @@
+ALTER TABLE event ADD COLUMN partition_hash INTEGER NOT NULL DEFAULT 0;
\ No newline at end of file
@@ -0,0 +1,9 @@
+CREATE FUNCTION notify_event_inserted() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('event_inserted', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER event_inserted AFTER INSERT ON event
+    FOR EACH STATEMENT EXECUTE PROCEDURE notify_event_inserted();
@@ -0,0 +1,27 @@
+-- The outbox rotates over a fixed set of partitions, drained partitions are truncated instead of vacuumed.
+ALTER TABLE event RENAME TO event_unpartitioned;
+DROP TRIGGER event_inserted ON event_unpartitioned;
+ALTER SEQUENCE event_id_seq OWNED BY NONE;
+
+CREATE TABLE event (
+    id BIGINT NOT NULL DEFAULT nextval('event_id_seq'),
+    event_json TEXT NOT NULL,
+    topic TEXT NOT NULL,
+    partition_hash INTEGER NOT NULL DEFAULT 0,
+    slot SMALLINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, slot)
+) PARTITION BY LIST (slot);
+
+CREATE TABLE event_0 PARTITION OF event FOR VALUES IN (0);
+CREATE TABLE event_1 PARTITION OF event FOR VALUES IN (1);
+CREATE TABLE event_2 PARTITION OF event FOR VALUES IN (2);
+CREATE TABLE event_3 PARTITION OF event FOR VALUES IN (3);
+
+ALTER SEQUENCE event_id_seq OWNED BY event.id;
+
+INSERT INTO event (id, event_json, topic, partition_hash, slot)
+    SELECT id, event_json, topic, partition_hash, 0 FROM event_unpartitioned;
+DROP TABLE event_unpartitioned;
+
+CREATE TRIGGER event_inserted AFTER INSERT ON event
+    FOR EACH STATEMENT EXECUTE PROCEDURE notify_event_inserted();
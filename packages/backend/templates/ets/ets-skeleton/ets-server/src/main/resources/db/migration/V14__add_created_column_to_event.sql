@@ -0,0 +1 @@
+ALTER TABLE event ADD COLUMN created TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
\ No newline at end of file
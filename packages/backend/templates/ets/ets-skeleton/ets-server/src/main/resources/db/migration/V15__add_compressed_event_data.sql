@@ -0,0 +1,6 @@
+-- Events are stored gzip compressed in event_data, event_json only holds events inserted before.
+ALTER TABLE event ALTER COLUMN event_json DROP NOT NULL;
+ALTER TABLE event ADD COLUMN event_data BYTEA;
+ALTER TABLE event ADD COLUMN codec SMALLINT NOT NULL DEFAULT 0;
+-- Already compressed, keep TOAST from trying again
+ALTER TABLE event ALTER COLUMN event_data SET STORAGE EXTERNAL;
\ No newline at end of file
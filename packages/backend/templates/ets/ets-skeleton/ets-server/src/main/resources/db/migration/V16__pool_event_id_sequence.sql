@@ -0,0 +1,2 @@
+-- Hibernate allocates event IDs 50 at a time, which lets it batch event inserts
+ALTER SEQUENCE event_id_seq INCREMENT BY 50;
\ No newline at end of file
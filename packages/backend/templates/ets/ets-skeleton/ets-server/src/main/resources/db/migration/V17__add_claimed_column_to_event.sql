@@ -0,0 +1,2 @@
+-- Invocations dispatched in process lease their event row while dispatching, instead of holding it locked.
+ALTER TABLE event ADD COLUMN claimed TIMESTAMP WITH TIME ZONE;
@@ -21,7 +21,7 @@ import com.sailpoint.ets.infrastructure.aws.HttpInvocationPayload;
 import com.sailpoint.ets.infrastructure.aws.InvocationPayload;
 import com.sailpoint.ets.infrastructure.aws.Invoker;
 import com.sailpoint.ets.infrastructure.aws.ScriptInvocationPayload;
-import com.sailpoint.ets.infrastructure.util.HTTPConfigConverter;
+import com.sailpoint.ets.infrastructure.subscription.DecryptedSubscriptionCache;
 import com.sailpoint.ets.infrastructure.util.ScriptConfigConverter;
 import com.sailpoint.ets.infrastructure.util.WorkflowConfigConverter;
 import com.sailpoint.ets.infrastructure.web.dto.ResponseMode;
@@ -37,6 +37,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Collections;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.sailpoint.ets.infrastructure.util.ScriptConfigConverter.RESPONSE_MODE;
 import static org.junit.Assert.assertEquals;
@@ -82,10 +83,12 @@ public class DispatchInvocationCommandTest {
 	@Mock
 	EtsFeatureStore _flagEtsFeatureStore;
 
+	@Mock
+	Consumer<Exception> _onDispatchFailure;
+
 	private DispatchInvocationCommand _cmd;
 	private EtsProperties _properties;
-	private HTTPConfigConverter _httpConfigConverter;
-	private ScriptConfigConverter _scriptConfigConverter;
+	private DecryptedSubscriptionCache _decryptedSubscriptionCache;
 
 	@Before
 	public void setUp() {
@@ -94,8 +97,7 @@ public class DispatchInvocationCommandTest {
 		_properties = new EtsProperties();
 		_properties.setDeadlineMinutes(1);
 		_properties.setLambdaNamePrefix("ets-handler-");
-		_httpConfigConverter = new HTTPConfigConverter(_awsEncryptionServiceUtil);
-		_scriptConfigConverter = new ScriptConfigConverter(_awsEncryptionServiceUtil);
+		_decryptedSubscriptionCache = new DecryptedSubscriptionCache(_awsEncryptionServiceUtil, _properties);
 		when(_awsEncryptionServiceUtil.decryptDataWithoutCheckKey(eq(Base64.decodeBase64(Base64.encodeBase64String("aladdin".getBytes()))), any()))
 			.thenReturn("aladdin".getBytes());
 		when(_awsEncryptionServiceUtil.decryptDataWithoutCheckKey(eq(Base64.decodeBase64(Base64.encodeBase64String("opensesame".getBytes()))), any()))
@@ -136,6 +138,25 @@ public class DispatchInvocationCommandTest {
 		assertEquals(payload.getHeaders().get("Authorization"), "Bearer eyJhbGciOi");
 	}
 
+	@Test
+	public void dispatchTemplateIsBuiltOncePerSubscriptionVersion() {
+		String subscriptionId = UUID.randomUUID().toString();
+		givenCommandWithBearerAuthConfig(subscriptionId, 3L, UUID.randomUUID());
+		whenTheCommandIsHandled();
+
+		givenCommandWithBearerAuthConfig(subscriptionId, 3L, UUID.randomUUID());
+		_cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _decryptedSubscriptionCache,
+			_circuitBreaker, _objectMapper, _publisher, _flagEtsFeatureStore, _onDispatchFailure);
+
+		verify(_awsEncryptionServiceUtil, times(1)).decryptDataWithoutCheckKey(any(), any());
+		verify(_invoker, times(2)).invokeLambdaFunction(_functionNameCaptor.capture(), _functionArgumentCaptor.capture(), eq(_onDispatchFailure));
+
+		InvocationPayload payload = _functionArgumentCaptor.getValue();
+		assertEquals(_cmd.getInvocationId().toString(), payload.getInvocationId());
+		assertEquals("Bearer eyJhbGciOi", payload.getHeaders().get("Authorization"));
+		assertEquals("ets-handler-http", _functionNameCaptor.getValue());
+	}
+
 	@Test
 	public void testDispatchScriptInvocation() {
 		givenScriptInvocationCommand();
@@ -153,8 +174,8 @@ public class DispatchInvocationCommandTest {
 		givenWorkflowInvocationCommand();
 
 		//When the command is handled
-		_cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _httpConfigConverter,
-			_scriptConfigConverter, _circuitBreaker, _objectMapper, _publisher,  _flagEtsFeatureStore);
+		_cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _decryptedSubscriptionCache,
+			_circuitBreaker, _objectMapper, _publisher, _flagEtsFeatureStore, _onDispatchFailure);
 
 		//Then event publisher is invoked
 		ArgumentCaptor<TriggerWorkflowEvent> workflowExecutedEventArgumentCaptor = ArgumentCaptor.forClass(TriggerWorkflowEvent.class);
@@ -179,7 +200,15 @@ public class DispatchInvocationCommandTest {
 	}
 
 	private void givenCommandWithBearerAuthConfig() {
+		givenCommandWithBearerAuthConfig(UUID.randomUUID().toString(), null,
+			UUID.fromString("0612a993-a2f8-4365-9dcc-4b5d620a64f0"));
+	}
+
+	private void givenCommandWithBearerAuthConfig(String subscriptionId, Long subscriptionVersion, UUID invocationId) {
 		_cmd = getCommandBuilder()
+			.subscriptionId(subscriptionId)
+			.subscriptionVersion(subscriptionVersion)
+			.invocationId(invocationId)
 			.subscriptionConfig(ImmutableMap.of("url", "http://sample-url.com",
 				"httpAuthenticationType", "BEARER_TOKEN",
 				"bearerTokenAuthConfig", ImmutableMap.of("bearerToken", Base64.encodeBase64String("eyJhbGciOi".getBytes())))
@@ -236,9 +265,9 @@ public class DispatchInvocationCommandTest {
 	}
 
 	private void whenTheCommandIsHandled() {
-		_cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _httpConfigConverter,
-			_scriptConfigConverter, _circuitBreaker, _objectMapper, _publisher, _flagEtsFeatureStore);
-		verify(_invoker).invokeLambdaFunction(_functionNameCaptor.capture(), _functionArgumentCaptor.capture());
+		_cmd.handle(_invoker, _invocationCallbackUrlProvider, _properties, _decryptedSubscriptionCache,
+			_circuitBreaker, _objectMapper, _publisher, _flagEtsFeatureStore, _onDispatchFailure);
+		verify(_invoker).invokeLambdaFunction(_functionNameCaptor.capture(), _functionArgumentCaptor.capture(), eq(_onDispatchFailure));
 	}
 
 	private void thenTheFunctionIsInvoked(String name) {
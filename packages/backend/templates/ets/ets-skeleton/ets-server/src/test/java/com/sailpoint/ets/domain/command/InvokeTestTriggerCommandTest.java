@@ -10,7 +10,8 @@ import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
 import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.invocation.InvocationRepo;
 import com.sailpoint.ets.domain.subscription.Subscription;
-import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
@@ -18,6 +19,7 @@ import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerRepo;
 import com.sailpoint.ets.domain.trigger.TriggerType;
 import com.sailpoint.ets.exception.NotFoundException;
+import com.sailpoint.ets.infrastructure.subscription.JsonPathSubscriptionFilterEngine;
 import com.sailpoint.utilities.JsonUtil;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,13 +29,13 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -61,7 +63,7 @@ public class InvokeTestTriggerCommandTest {
 	TriggerRepo _triggerRepo;
 
 	@Mock
-	SubscriptionRepo _subscriptionRepo;
+	SubscriptionCache _subscriptionCache;
 
 	@Mock
 	InvocationRepo _invocationRepo;
@@ -78,6 +80,8 @@ public class InvokeTestTriggerCommandTest {
 	@Mock
 	EtsFeatureStore _etsFeatureStore;
 
+	SubscriptionFilterEngine _filterEngine = new JsonPathSubscriptionFilterEngine();
+
 	private EtsProperties _properties;
 	private InvokeTestTriggerCommand _cmd;
 
@@ -102,8 +106,8 @@ public class InvokeTestTriggerCommandTest {
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
 
 		givenCommand();
-		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo,
-			_eventPublisher, _properties, _etsFeatureStore);
+		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo,
+			_eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 		assertTrue(invocations.isEmpty());
 	}
 
@@ -111,11 +115,11 @@ public class InvokeTestTriggerCommandTest {
 	public void testInvokingRequestResponseTrigger() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.REQUEST_RESPONSE);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(Subscription.builder()
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(Subscription.builder()
 				.id(UUID.randomUUID())
 				.type(SubscriptionType.HTTP)
 				.build()));
@@ -129,11 +133,11 @@ public class InvokeTestTriggerCommandTest {
 	public void testInvokingTriggerWithOptionalInput() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.REQUEST_RESPONSE);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(Subscription.builder()
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(Subscription.builder()
 				.id(UUID.randomUUID())
 				.type(SubscriptionType.HTTP)
 				.build()));
@@ -155,7 +159,7 @@ public class InvokeTestTriggerCommandTest {
 	public void testInvokingFireAndForgetTrigger() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
 		Subscription subscription1 = Subscription.builder()
@@ -164,12 +168,12 @@ public class InvokeTestTriggerCommandTest {
 		Subscription subscription2 = Subscription.builder()
 			.id(UUID.randomUUID())
 			.type(SubscriptionType.HTTP).build();
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(subscription1, subscription2));
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(subscription1, subscription2));
 
 		givenCommand();
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 		verify(_eventPublisher, times(2)).publish(_triggerInvokedEventCaptor.capture());
 		assertEquals("tenantId", _triggerInvokedEventCaptor.getValue().getTenantId());
 		assertEquals("triggerId", _triggerInvokedEventCaptor.getValue().getTriggerId());
@@ -181,7 +185,7 @@ public class InvokeTestTriggerCommandTest {
 	public void testInvokingSingleSubscription() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
 
@@ -191,8 +195,8 @@ public class InvokeTestTriggerCommandTest {
 		Subscription subscription2 = Subscription.builder()
 			.id(UUID.randomUUID())
 			.type(SubscriptionType.HTTP).build();
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(subscription1, subscription2));
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(subscription1, subscription2));
 
 		_cmd = InvokeTestTriggerCommand.builder()
 			.tenantId(new TenantId("tenantId"))
@@ -202,7 +206,7 @@ public class InvokeTestTriggerCommandTest {
 			.subscriptionIds(Optional.of(Collections.singleton(subscription1.getId())))
 			.build();
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 
 		verify(_eventPublisher, times(1)).publish(_triggerInvokedEventCaptor.capture());
 		assertEquals("tenantId", _triggerInvokedEventCaptor.getValue().getTenantId());
@@ -216,7 +220,7 @@ public class InvokeTestTriggerCommandTest {
 	public void testInvokingWithFilter() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
 		when(_trigger.getExampleInput()).thenReturn(JsonUtil.parse(Map.class, jsonAttributeChange));
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
@@ -237,12 +241,12 @@ public class InvokeTestTriggerCommandTest {
 			.enabled(true)
 			.filter("$.changesss[?(@.attribute == 'causes exception in JsonPathUtil.isPathExist')]")
 			.build();
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(subscription1, subscription2, subscription3));
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(subscription1, subscription2, subscription3));
 
 		givenCommand();
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 
 		//Verify that the subscription that filters on manager attribute alone is called
 		verify(_eventPublisher, times(1)).publish(_triggerInvokedEventCaptor.capture());
@@ -266,7 +270,7 @@ public class InvokeTestTriggerCommandTest {
 
 	private void whenTheCommandIsHandled() {
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 		verify(_invocationRepo).save(_invocationCaptor.capture());
 		verify(_eventPublisher).publish(_triggerInvokedEventCaptor.capture());
 	}
@@ -10,7 +10,8 @@ import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
 import com.sailpoint.ets.domain.invocation.Invocation;
 import com.sailpoint.ets.domain.invocation.InvocationRepo;
 import com.sailpoint.ets.domain.subscription.Subscription;
-import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.subscription.SubscriptionCache;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
 import com.sailpoint.ets.domain.subscription.SubscriptionType;
 import com.sailpoint.ets.domain.trigger.Trigger;
 import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
@@ -18,6 +19,7 @@ import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerRepo;
 import com.sailpoint.ets.domain.trigger.TriggerType;
 import com.sailpoint.ets.exception.NotFoundException;
+import com.sailpoint.ets.infrastructure.subscription.JsonPathSubscriptionFilterEngine;
 import com.sailpoint.utilities.JsonUtil;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,12 +29,12 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -58,7 +60,7 @@ public class InvokeTriggerCommandTest {
 	TriggerRepo _triggerRepo;
 
 	@Mock
-	SubscriptionRepo _subscriptionRepo;
+	SubscriptionCache _subscriptionCache;
 
 	@Mock
 	InvocationRepo _invocationRepo;
@@ -75,6 +77,8 @@ public class InvokeTriggerCommandTest {
 	@Mock
 	EtsFeatureStore _etsFeatureStore;
 
+	SubscriptionFilterEngine _filterEngine = new JsonPathSubscriptionFilterEngine();
+
 	private EtsProperties _properties;
 	private InvokeTriggerCommand _cmd;
 
@@ -100,8 +104,8 @@ public class InvokeTriggerCommandTest {
 
 		givenCommand();
 
-		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo,
-			_eventPublisher, _properties, _etsFeatureStore);
+		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo,
+			_eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 
 		assertEquals(Collections.emptyList(), invocations);
 	}
@@ -111,11 +115,11 @@ public class InvokeTriggerCommandTest {
 	public void testInvokingRequestResponseTrigger() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.REQUEST_RESPONSE);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(Subscription.builder()
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(Subscription.builder()
 				.id(UUID.randomUUID())
 				.type(SubscriptionType.HTTP)
 				.enabled(true)
@@ -130,8 +134,8 @@ public class InvokeTriggerCommandTest {
 	public void whenSubscriptionIsDisabled_ShouldSkipInvocation() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(Subscription.builder()
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(Subscription.builder()
 				.id(UUID.randomUUID())
 				.type(SubscriptionType.HTTP)
 				.enabled(false)
@@ -139,8 +143,8 @@ public class InvokeTriggerCommandTest {
 
 		givenCommand();
 
-		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo,
-			_eventPublisher, _properties, _etsFeatureStore);
+		List<Invocation> invocations = _cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo,
+			_eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 
 		assertEquals(Collections.emptyList(), invocations);
 	}
@@ -149,11 +153,11 @@ public class InvokeTriggerCommandTest {
 	public void testInvokingFireAndForgetTrigger() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(Subscription.builder()
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(Subscription.builder()
 				.id(UUID.randomUUID())
 				.type(SubscriptionType.HTTP)
 				.enabled(true)
@@ -161,7 +165,7 @@ public class InvokeTriggerCommandTest {
 
 		givenCommand();
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 		verify(_eventPublisher).publish(_triggerInvokedEventCaptor.capture());
 		assertEquals("tenantId", _triggerInvokedEventCaptor.getValue().getTenantId());
 		assertEquals("triggerId", _triggerInvokedEventCaptor.getValue().getTriggerId());
@@ -173,7 +177,7 @@ public class InvokeTriggerCommandTest {
 	public void testInvokingFireAndForgetTrigger_withFilter() {
 		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
 		when(_invocation.getId()).thenReturn(UUID.randomUUID());
-		when(_trigger.invoke(any(), any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
 		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
 		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
 
@@ -195,18 +199,43 @@ public class InvokeTriggerCommandTest {
 			.enabled(true)
 			.filter("$.changesss[?(@.attribute == 'causes exception in JsonPathUtil.isPathExist')]")
 			.build();
-		when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
-			.thenReturn(Stream.of(subscription1, subscription2, subscription3));
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(subscription1, subscription2, subscription3));
 
 		givenCommand();
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 
 		//Verify that the subscription that filters on manager attribute alone is called
 		verify(_eventPublisher, times(1)).publish(_triggerInvokedEventCaptor.capture());
 		assertEquals(subscription1.getId().toString(), _triggerInvokedEventCaptor.getValue().getSubscriptionId());
 	}
 
+	@Test
+	public void testInvokingFireAndForgetTrigger_validatesInputOncePerEvent() {
+		Map<String, Object> sanitizedInput = Collections.singletonMap("identity", "sanitized");
+		when(_trigger.isEnabledForTenant(any())).thenReturn(true);
+		when(_invocation.getId()).thenReturn(UUID.randomUUID());
+		when(_trigger.invoke(any(), any(), anyInt(), any())).thenReturn(_invocation);
+		when(_trigger.processInput(any())).thenReturn(sanitizedInput);
+		when(_trigger.getType()).thenReturn(TriggerType.FIRE_AND_FORGET);
+		when(_triggerRepo.findById(any())).thenReturn(Optional.of(_trigger));
+		when(_subscriptionCache.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenReturn(Arrays.asList(
+				Subscription.builder().id(UUID.randomUUID()).type(SubscriptionType.HTTP).enabled(true).build(),
+				Subscription.builder().id(UUID.randomUUID()).type(SubscriptionType.HTTP).enabled(true).build(),
+				Subscription.builder().id(UUID.randomUUID()).type(SubscriptionType.HTTP).enabled(true).build()));
+
+		givenCommand();
+
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
+
+		verify(_trigger, times(1)).processInput(any());
+		verify(_eventPublisher, times(3)).publish(_triggerInvokedEventCaptor.capture());
+		_triggerInvokedEventCaptor.getAllValues()
+			.forEach(event -> assertEquals(sanitizedInput, event.getInput()));
+	}
+
 	private void givenCommand() {
 		_cmd = InvokeTriggerCommand.builder()
 			.tenantId(new TenantId("tenantId"))
@@ -218,7 +247,7 @@ public class InvokeTriggerCommandTest {
 
 	private void whenTheCommandIsHandled() {
 
-		_cmd.handle(_triggerRepo, _subscriptionRepo, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore);
+		_cmd.handle(_triggerRepo, _subscriptionCache, _invocationRepo, _eventPublisher, _properties, _etsFeatureStore, _filterEngine);
 		verify(_invocationRepo).save(_invocationCaptor.capture());
 		verify(_eventPublisher).publish(_triggerInvokedEventCaptor.capture());
 	}
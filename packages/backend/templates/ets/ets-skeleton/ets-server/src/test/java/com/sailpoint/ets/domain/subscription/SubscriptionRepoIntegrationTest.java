@@ -19,11 +19,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import javax.transaction.Transactional;
@@ -40,6 +44,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * {@link SubscriptionRepo} integration test
@@ -59,6 +64,9 @@ public class SubscriptionRepoIntegrationTest {
 	@Autowired
 	private SubscriptionRepo _subscriptionRepo;
 
+	@Autowired
+	private PlatformTransactionManager _transactionManager;
+
 	@BeforeClass
 	public static void beforeClass() throws Exception {
 		EasyRandomParameters parameters = new EasyRandomParameters();
@@ -324,6 +332,46 @@ public class SubscriptionRepoIntegrationTest {
 				.getCount());
 	}
 
+	@Test
+	@Transactional(Transactional.TxType.NOT_SUPPORTED)
+	public void concurrentUpdatesShouldNotShareAVersion() {
+		final Subscription subscription = _subscriptionRepo.save(Subscription.builder()
+			.id(UUID.randomUUID())
+			.tenantId(new TenantId("acme-solar"))
+			.filter("$[?($.name == 'initial')]")
+			.build());
+
+		TransactionTemplate transaction = new TransactionTemplate(_transactionManager);
+		TransactionTemplate concurrentTransaction = new TransactionTemplate(_transactionManager);
+		concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			try {
+				transaction.execute(status -> {
+					Subscription first = _subscriptionRepo.findById(subscription.getId()).get();
+
+					// Both updates read the same version, the second one commits first
+					concurrentTransaction.execute(concurrentStatus -> {
+						Subscription second = _subscriptionRepo.findById(subscription.getId()).get();
+						second.setFilter("$[?($.name == 'second')]");
+						return _subscriptionRepo.save(second);
+					});
+
+					first.setFilter("$[?($.name == 'first')]");
+					return _subscriptionRepo.save(first);
+				});
+				fail("The update based on a stale version should fail");
+			} catch (OptimisticLockingFailureException e) {
+				// Expected, the update committed first wins
+			}
+
+			Subscription actual = _subscriptionRepo.findById(subscription.getId()).get();
+			assertEquals(1, actual.getVersion());
+			assertEquals("$[?($.name == 'second')]", actual.getFilter());
+		} finally {
+			_subscriptionRepo.deleteById(subscription.getId());
+		}
+	}
+
 	private void insertSubscriptions(Iterable<Subscription> subscriptions) {
 		_subscriptionRepo.saveAll(subscriptions);
 	}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.trigger;
+
+import com.sailpoint.ets.exception.ValidationException;
+import com.sailpoint.utilities.JsonUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link AvroSchema}
+ */
+public class AvroSchemaTest {
+
+	private AvroSchema _schema;
+	private Map<String, Object> _exampleInput;
+
+	@Before
+	public void setUp() throws IOException {
+		Map<String, Object> descriptor = JsonUtil.parse(Map.class,
+			new ClassPathResource("triggers/avroSchema/idn_account_aggregation_completed.json").getInputStream());
+
+		_schema = new AvroSchema((Map<String, Object>)descriptor.get("inputSchema"));
+		_exampleInput = (Map<String, Object>)descriptor.get("exampleInput");
+	}
+
+	@Test
+	public void exampleInputShouldValidate() {
+		_schema.validateData(_exampleInput);
+	}
+
+	@Test
+	public void sanitizeShouldDropDataNotDefinedInSchema() {
+		Map<String, Object> input = new HashMap<>(_exampleInput);
+		input.put("secret", "top secret");
+
+		Map<String, Object> sanitized = _schema.sanitizeData(input);
+
+		assertFalse(sanitized.containsKey("secret"));
+		assertEquals("Success", sanitized.get("status"));
+		assertEquals(200, ((Map<String, Object>)sanitized.get("stats")).get("scanned"));
+		assertEquals("Corporate Active Directory", ((Map<String, Object>)sanitized.get("source")).get("name"));
+		assertTrue(input.containsKey("secret"));
+	}
+
+	@Test(expected = ValidationException.class)
+	public void invalidInputShouldFailToValidate() {
+		Map<String, Object> input = new HashMap<>(_exampleInput);
+		input.remove("status");
+
+		_schema.sanitizeData(input);
+	}
+
+	@Test
+	public void encodedInputShouldDecodeToSanitizedInput() {
+		byte[] encoded = _schema.encode(_exampleInput).get();
+
+		assertEquals(_schema.sanitizeData(_exampleInput), _schema.decode(encoded));
+	}
+
+	@Test
+	public void encodedInputShouldBeSmallerThanJson() {
+		byte[] encoded = _schema.encode(_exampleInput).get();
+		byte[] json = JsonUtil.toJson(_exampleInput).getBytes(StandardCharsets.UTF_8);
+
+		// Field names and JSON punctuation are not encoded, leaving roughly half of the JSON size for the example
+		assertTrue(encoded.length * 2 < json.length);
+	}
+}
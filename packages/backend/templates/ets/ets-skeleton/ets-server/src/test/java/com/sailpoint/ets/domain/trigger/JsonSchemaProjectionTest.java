@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.domain.trigger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sailpoint.ets.domain.trigger.schemaGeneratedDto.idn_identity_attributes_changed.RecordIdentityAttributesChangedEvent;
+import com.sailpoint.utilities.JsonUtil;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link JsonSchemaProjection}
+ */
+public class JsonSchemaProjectionTest {
+
+	private final ObjectMapper _mapper = new ObjectMapper();
+
+	@Test
+	public void projectShouldMatchDtoRoundTrip() {
+		Map<String, Object> input = JsonUtil.parse(Map.class, "{\"identity\": {\"id\": \"ee769173319b41d19ccec6cea52f237b\", \"name\": \"john.doe\", \"type\": \"IDENTITY\", \"secret\": \"drop me\"}, " +
+			"\"changes\": [{\"attribute\": \"department\", \"oldValue\": \"sales\", \"newValue\": \"marketing\"}, " +
+			"{\"attribute\": \"manager\", \"oldValue\": {\"id\": \"ee769173319b41d19ccec6c235423237b\", \"name\": \"nice.guy\", \"type\": \"IDENTITY\"}}], " +
+			"\"extra\": \"drop me\"}");
+
+		JsonSchemaProjection projection = JsonSchemaProjection.compile(_mapper, _mapper.constructType(RecordIdentityAttributesChangedEvent.class));
+
+		Object dto = _mapper.convertValue(input, RecordIdentityAttributesChangedEvent.class);
+		Map<String, Object> expected = _mapper.convertValue(dto, Map.class);
+		Map<String, Object> actual = projection.project(input);
+
+		assertEquals(expected, actual);
+		assertFalse(actual.containsKey("extra"));
+		assertFalse(((Map) actual.get("identity")).containsKey("secret"));
+	}
+
+	@Test
+	public void projectShouldSkipNullsWhenDtoExcludesThem() {
+		Map<String, Object> input = JsonUtil.parse(Map.class, "{\"testStringKey\": \"testStringValue\", \"testArrayKey\": [\"testArrayValue0\"], \"extraTestStringKey\": \"extra\"}");
+
+		JsonSchemaProjection projection = JsonSchemaProjection.compile(_mapper, _mapper.constructType(RecordTestObject.class));
+
+		Map<String, Object> expected = _mapper.convertValue(_mapper.convertValue(input, RecordTestObject.class), Map.class);
+		assertEquals(expected, projection.project(input));
+	}
+
+	@Test
+	public void projectShouldReturnUnmodifiableCopy() {
+		Map<String, Object> input = JsonUtil.parse(Map.class, "{\"testStringKey\": \"testStringValue\", \"testArrayKey\": [\"testArrayValue0\"]}");
+
+		Map<String, Object> projected = JsonSchemaProjection.compile(_mapper, _mapper.constructType(RecordTestObject.class)).project(input);
+
+		try {
+			((List<Object>) projected.get("testArrayKey")).add("value");
+			fail("Projected data should be unmodifiable");
+		} catch (UnsupportedOperationException expected) {
+			assertEquals(1, ((List) input.get("testArrayKey")).size());
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.sailpoint.ets.domain.trigger;
 
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sailpoint.utilities.JsonUtil;
 import org.everit.json.schema.loader.SchemaLoader;
 import org.json.JSONObject;
 import org.json.JSONTokener;
@@ -9,6 +10,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -91,4 +94,26 @@ public class SchemaTest {
 		}
 	}
 
+	@Test
+	public void testJsonSchemaValidateShouldParseIntoCompiledDtoType() {
+		String exampleInput = "{\"testStringKey\": \"testStringValue\",\"extraTestStringKey\": \"extraTestStringKeyValue\",\"testArrayKey\": [\"testArrayValue0\"],\"testNestedPropertyKey1\": {\"testNestedPropertyKey2\": \"testNestedProperty2Value\"}}";
+		String exampleSchema = "{\"definitions\": {\"record:TestObject\": {\"type\": \"object\",\"required\": [\"testArrayKey\",\"testNestedPropertyKey1\",\"testStringKey\"],\"additionalProperties\": true,\"properties\": {\"testArrayKey\": {\"type\": \"array\",\"items\": {\"type\": \"string\"}},\"testNestedPropertyKey1\": {\"$ref\": \"#/definitions/record:TestNestedPropertyKey1\"},\"testStringKey\": {\"type\": \"string\"}}},\"record:TestNestedPropertyKey1\": {\"type\": \"object\",\"required\": [\"testNestedPropertyKey2\"],\"additionalProperties\": true,\"properties\": {\"testNestedPropertyKey2\": {\"type\": \"string\"}}}},\"$ref\": \"#/definitions/record:TestObject\"}";
+		JsonSchema jsonSchema = new JsonSchema(JsonUtil.parse(Map.class, exampleSchema), "com.sailpoint.ets.domain.trigger.RecordTestObject");
+
+		// The compiled schema is reused for every call
+		for (int i = 0; i < 3; i++) {
+			Object dto = jsonSchema.validate(JsonUtil.parse(Map.class, exampleInput));
+
+			assertTrue(dto instanceof RecordTestObject);
+			assertEquals("testStringValue", ((RecordTestObject) dto).getTestStringKey());
+			assertFalse(dto.toString().contains("extraTestStringKey"));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testJsonSchemaWithUnknownDtoClassShouldFailOnLoad() {
+		String exampleSchema = "{\"type\": \"object\",\"properties\": {\"testStringKey\": {\"type\": \"string\"}}}";
+		new JsonSchema(JsonUtil.parse(Map.class, exampleSchema), "com.sailpoint.ets.domain.trigger.RecordDoesNotExist");
+	}
+
 }
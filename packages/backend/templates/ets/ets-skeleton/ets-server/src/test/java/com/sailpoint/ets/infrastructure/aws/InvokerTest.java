@@ -7,21 +7,34 @@ package com.sailpoint.ets.infrastructure.aws;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.eventbridge.AmazonEventBridge;
 import com.amazonaws.services.eventbridge.model.CreatePartnerEventSourceResult;
-import com.amazonaws.services.lambda.AWSLambda;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.AWSLambdaAsync;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.LoadingCache;
 import com.sailpoint.atlas.idn.RestClientProvider;
+import com.sailpoint.ets.EtsProperties;
 import com.sailpoint.ets.exception.ValidationException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -37,11 +50,17 @@ public class InvokerTest {
 	private AmazonEventBridge amazonEventBridge;
 
 	@Mock
-	private AWSLambda awsLambda;
+	private AWSLambdaAsync awsLambda;
 
 	@Mock
 	private RestClientProvider _restClientProvider;
 
+	@Mock
+	private PartnerEventBatcher _partnerEventBatcher;
+
+	@Mock
+	private Consumer<Exception> _onFailure;
+
 	private Invoker invoker;
 
 	private final String TEST_ARN = "TEST-ARN:123";
@@ -61,7 +80,8 @@ public class InvokerTest {
 		when(amazonEventBridge.createPartnerEventSource(any())).thenReturn(_result);
 		when(_regionalEventBridge.get(anyString())).thenReturn(amazonEventBridge);
 
-		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, new EtsProperties(),
+			new ObjectMapper());
 
 		String eventSourceArn = invoker.createPartnerEventSource(TEST_ACCOUNT_ID, TEST_REGION, _partnerEventSourceName);
 
@@ -74,15 +94,81 @@ public class InvokerTest {
 		when(amazonEventBridge.createPartnerEventSource(any())).thenThrow(RuntimeException.class);
 		when(_regionalEventBridge.get(anyString())).thenReturn(amazonEventBridge);
 
-		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, new EtsProperties(),
+			new ObjectMapper());
 		invoker.createPartnerEventSource(TEST_ACCOUNT_ID, TEST_REGION, _partnerEventSourceName);
 	}
 
+	@Test
+	public void lambdaInvocationShouldNotWaitForResponse() {
+		EtsProperties properties = new EtsProperties();
+		properties.setLambdaMaxInFlight(1);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, properties,
+			new ObjectMapper());
+
+		ArgumentCaptor<AsyncHandler<InvokeRequest, InvokeResult>> handler = ArgumentCaptor.forClass(AsyncHandler.class);
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.emptyMap(), _onFailure);
+		verify(awsLambda).invokeAsync(any(), handler.capture());
+
+		// The response frees the in flight slot for the next invocation
+		handler.getValue().onSuccess(null, new InvokeResult().withStatusCode(202));
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.emptyMap(), _onFailure);
+		verify(awsLambda, times(2)).invokeAsync(any(), any());
+	}
+
+	@Test
+	public void lambdaPayloadShouldBeSentAsJsonBytes() {
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, new EtsProperties(),
+			new ObjectMapper());
+
+		ArgumentCaptor<InvokeRequest> request = ArgumentCaptor.forClass(InvokeRequest.class);
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.singletonMap("invocationId", "a"), _onFailure);
+		verify(awsLambda).invokeAsync(request.capture(), any());
+
+		Assert.assertEquals("ets-handler-http", request.getValue().getFunctionName());
+		Assert.assertEquals("{\"invocationId\":\"a\"}", StandardCharsets.UTF_8.decode(request.getValue().getPayload()).toString());
+	}
+
+	@Test
+	public void failedLambdaInvocationShouldBeRetriedThenReported() {
+		EtsProperties properties = new EtsProperties();
+		properties.setLambdaInvokeRetries(1);
+		properties.setLambdaRetryDelayMillis(1);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, properties,
+			new ObjectMapper());
+
+		ArgumentCaptor<AsyncHandler<InvokeRequest, InvokeResult>> handler = ArgumentCaptor.forClass(AsyncHandler.class);
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.emptyMap(), _onFailure);
+		verify(awsLambda).invokeAsync(any(), handler.capture());
+
+		RuntimeException throttled = new RuntimeException("Rate exceeded");
+		handler.getValue().onError(throttled);
+		verify(awsLambda, timeout(1000).times(2)).invokeAsync(any(), handler.capture());
+		verify(_onFailure, never()).accept(any());
+
+		handler.getValue().onError(throttled);
+		verify(_onFailure).accept(throttled);
+		invoker.shutdown();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void lambdaInvocationShouldFailWhenTooManyInFlight() {
+		EtsProperties properties = new EtsProperties();
+		properties.setLambdaMaxInFlight(1);
+		properties.setLambdaAcquireTimeoutSeconds(0);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, properties,
+			new ObjectMapper());
+
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.emptyMap(), _onFailure);
+		invoker.invokeLambdaFunction("ets-handler-http", Collections.emptyMap(), _onFailure);
+	}
+
 	@Test(expected= ValidationException.class)
 	public void testRegionalEventBridgeThrowsException() throws ExecutionException {
 		when(_regionalEventBridge.get(anyString())).thenThrow(RuntimeException.class);
 
-		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider);
+		invoker = new Invoker(awsLambda, _regionalEventBridge, _restClientProvider, _partnerEventBatcher, new EtsProperties(),
+			new ObjectMapper());
 		invoker.createPartnerEventSource(TEST_ACCOUNT_ID, TEST_REGION, _partnerEventSourceName);
 	}
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.aws;
+
+import com.amazonaws.services.eventbridge.AmazonEventBridge;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsRequest;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsResult;
+import com.amazonaws.services.eventbridge.model.PutPartnerEventsResultEntry;
+import com.google.common.cache.LoadingCache;
+import com.sailpoint.ets.EtsProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PartnerEventBatcher}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PartnerEventBatcherTest {
+
+	private static final String REGION = "us-east-1";
+	private static final String SOURCE = "aws.partner/sailpoint.com/sub1234/idn/fire-and-forget";
+
+	@Mock
+	private LoadingCache<String, AmazonEventBridge> _regionalEventBridge;
+
+	@Mock
+	private AmazonEventBridge _amazonEventBridge;
+
+	private PartnerEventBatcher _batcher;
+
+	@Before
+	public void setUp() throws ExecutionException {
+		EtsProperties properties = new EtsProperties();
+		properties.setEventBridgeBatchWindowMillis(60000);
+		_batcher = new PartnerEventBatcher(_regionalEventBridge, properties);
+
+		when(_regionalEventBridge.get(REGION)).thenReturn(_amazonEventBridge);
+		lenient().when(_amazonEventBridge.putPartnerEvents(any())).thenAnswer(invocation -> {
+			PutPartnerEventsRequest request = invocation.getArgument(0);
+			List<PutPartnerEventsResultEntry> entries = IntStream.range(0, request.getEntries().size())
+				.mapToObj(i -> new PutPartnerEventsResultEntry().withEventId("event-" + i))
+				.collect(Collectors.toList());
+			return new PutPartnerEventsResult().withFailedEntryCount(0).withEntries(entries);
+		});
+	}
+
+	@Test
+	public void fullBatchShouldBeSentInOneRequest() {
+		for (int i = 0; i < PartnerEventBatcher.MAX_ENTRIES; i++) {
+			_batcher.add(REGION, SOURCE, "idn:fire-and-forget", Collections.singletonMap("index", i));
+		}
+
+		ArgumentCaptor<PutPartnerEventsRequest> request = ArgumentCaptor.forClass(PutPartnerEventsRequest.class);
+		verify(_amazonEventBridge, timeout(5000)).putPartnerEvents(request.capture());
+		assertEquals(PartnerEventBatcher.MAX_ENTRIES, request.getValue().getEntries().size());
+	}
+
+	@Test
+	public void pendingBatchShouldBeSentOnShutdown() {
+		_batcher.add(REGION, SOURCE, "idn:fire-and-forget", Collections.singletonMap("index", 0));
+		_batcher.add(REGION, SOURCE, "idn:fire-and-forget", Collections.singletonMap("index", 1));
+
+		_batcher.shutdown();
+
+		ArgumentCaptor<PutPartnerEventsRequest> request = ArgumentCaptor.forClass(PutPartnerEventsRequest.class);
+		verify(_amazonEventBridge).putPartnerEvents(request.capture());
+		assertEquals(2, request.getValue().getEntries().size());
+	}
+
+	@Test
+	public void failedEntryShouldBeRetriedBeforeItsEventCompletes() throws Exception {
+		EtsProperties properties = new EtsProperties();
+		properties.setEventBridgeBatchWindowMillis(60000);
+		properties.setEventBridgeRetryDelayMillis(1);
+		_batcher = new PartnerEventBatcher(_regionalEventBridge, properties);
+		doReturn(new PutPartnerEventsResult().withFailedEntryCount(1).withEntries(
+				new PutPartnerEventsResultEntry().withEventId("event-0"),
+				new PutPartnerEventsResultEntry().withErrorCode("ThrottlingException").withErrorMessage("Rate exceeded")),
+			new PutPartnerEventsResult().withFailedEntryCount(0).withEntries(
+				new PutPartnerEventsResultEntry().withEventId("event-1")))
+			.when(_amazonEventBridge).putPartnerEvents(any());
+
+		CompletableFuture<Void> sent = _batcher.add(REGION, SOURCE, "idn:fire-and-forget", Collections.singletonMap("index", 0));
+		CompletableFuture<Void> throttled = _batcher.add(REGION, SOURCE, "idn:fire-and-forget", Collections.singletonMap("index", 1));
+		_batcher.shutdown();
+
+		sent.get(5, TimeUnit.SECONDS);
+		throttled.get(5, TimeUnit.SECONDS);
+		assertFalse(throttled.isCompletedExceptionally());
+
+		ArgumentCaptor<PutPartnerEventsRequest> request = ArgumentCaptor.forClass(PutPartnerEventsRequest.class);
+		verify(_amazonEventBridge, times(2)).putPartnerEvents(request.capture());
+		assertEquals(1, request.getAllValues().get(1).getEntries().size());
+	}
+
+	@After
+	public void cleanup() {
+		_batcher.shutdown();
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.aws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.sailpoint.ets.infrastructure.aws.PayloadBufferPool.PayloadBuffer;
+import com.sailpoint.utilities.JsonUtil;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link PayloadBufferPool}
+ */
+public class PayloadBufferPoolTest {
+
+	@Test
+	public void payloadShouldBeWrittenAsJsonWithoutNulls() {
+		PayloadBufferPool pool = new PayloadBufferPool(1, new ObjectMapper());
+		HttpInvocationPayload payload = HttpInvocationPayload.builder()
+			.triggerId("idn:access-request-submitted")
+			.triggerType("requestResponse")
+			.invocationId("0612a993-a2f8-4365-9dcc-4b5d620a64f0")
+			.url("http://sample-url.com")
+			.input(Collections.singletonMap("input1", "value1"))
+			.build();
+
+		ByteBuffer bytes = pool.write(payload).toByteBuffer();
+		Map<String, Object> json = JsonUtil.parse(Map.class,
+			new String(bytes.array(), bytes.position(), bytes.remaining(), StandardCharsets.UTF_8));
+
+		assertEquals("idn:access-request-submitted", json.get("triggerId"));
+		assertEquals("0612a993-a2f8-4365-9dcc-4b5d620a64f0", json.get("invocationId"));
+		assertEquals("http://sample-url.com", json.get("url"));
+		assertEquals(ImmutableMap.of("input1", "value1"), json.get("input"));
+		assertFalse(json.containsKey("callbackUrl"));
+	}
+
+	@Test
+	public void payloadJsonShouldMatchJsonUtil() {
+		PayloadBufferPool pool = new PayloadBufferPool(1, new ObjectMapper());
+		Map<String, Object> input = new HashMap<>();
+		input.put("displayName", "Jürgen Müller ✓");
+		input.put("manager", null);
+		input.put("attributes", ImmutableMap.of("department", "R&D", "count", 3));
+		List<InvocationPayload> payloads = Arrays.asList(
+			HttpInvocationPayload.builder()
+				.triggerId("idn:access-request-submitted")
+				.triggerType("requestResponse")
+				.invocationId("0612a993-a2f8-4365-9dcc-4b5d620a64f0")
+				.url("http://sample-url.com")
+				.callbackUrl("http://invocation-callback")
+				.secret("secret")
+				.responseMode("sync")
+				.headers(Collections.singletonMap("Authorization", "Bearer eyJhbGciOi"))
+				.input(input)
+				.build(),
+			ScriptInvocationPayload.builder()
+				.triggerId("idn:identity-attributes-changed")
+				.triggerType("fireAndForget")
+				.invocationId("5d3c2a4f-9f7e-4a53-a6a2-8f0b3c2d1e0f")
+				.scriptCode("ZHVtbXlKYXZhc2NyaXB0")
+				.input(input)
+				.build());
+
+		for (InvocationPayload payload : payloads) {
+			PayloadBuffer buffer = pool.write(payload);
+			assertEquals(JsonUtil.parse(Map.class, JsonUtil.toJson(payload)),
+				JsonUtil.parse(Map.class, new String(buffer.toByteArray(), StandardCharsets.UTF_8)));
+			pool.release(buffer);
+		}
+	}
+
+	@Test
+	public void releasedBufferShouldBeReused() {
+		PayloadBufferPool pool = new PayloadBufferPool(1, new ObjectMapper());
+
+		PayloadBuffer buffer = pool.write(Collections.singletonMap("invocationId", "a"));
+		pool.release(buffer);
+		PayloadBuffer reused = pool.write(Collections.singletonMap("invocationId", "b"));
+
+		assertSame(buffer, reused);
+		assertEquals("{\"invocationId\":\"b\"}", new String(reused.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void oversizedBufferShouldNotBePooled() {
+		PayloadBufferPool pool = new PayloadBufferPool(1, new ObjectMapper());
+		char[] large = new char[PayloadBufferPool.MAX_POOLED_BYTES];
+
+		pool.release(pool.write(Collections.singletonMap("input", new String(large))));
+
+		assertEquals(0, pool.idle());
+	}
+}
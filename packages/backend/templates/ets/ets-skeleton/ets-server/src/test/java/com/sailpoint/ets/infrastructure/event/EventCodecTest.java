@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventCodec}
+ */
+public class EventCodecTest {
+
+	@Test
+	public void compressedEventShouldDecodeToTheSameJson() {
+		String json = "{\"type\":\"TriggerInvokedEvent\",\"scriptSource\":\"" + Strings.repeat("return true; ", 10000) + "é\"}";
+
+		byte[] compressed = EventCodec.compress(json);
+
+		assertTrue(compressed.length < json.length() / 10);
+		assertEquals(json, EventCodec.of(EventCodec.GZIP.getId()).decode(null, compressed));
+	}
+
+	@Test
+	public void jsonEventShouldDecodeFromText() {
+		assertEquals("{}", EventCodec.of((short)0).decode("{}", null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownCodecShouldFail() {
+		EventCodec.of((short)42);
+	}
+}
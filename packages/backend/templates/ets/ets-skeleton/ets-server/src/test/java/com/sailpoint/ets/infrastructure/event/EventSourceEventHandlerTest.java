@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.sailpoint.atlas.boot.core.web.TenantIdentifier;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.command.InvokeTriggerCommand;
+import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.sailpoint.ets.domain.trigger.TriggerRepo;
+import com.sailpoint.ets.infrastructure.subscription.SubscribedTriggerSet;
+import com.sailpoint.ets.service.TriggerService;
+import com.sailpoint.iris.client.Event;
+import com.sailpoint.iris.client.EventBuilder;
+import com.sailpoint.iris.client.EventHeaders;
+import com.sailpoint.iris.client.Topic;
+import com.sailpoint.iris.server.EventHandlerContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link EventSourceEventHandler}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventSourceEventHandlerTest {
+
+	private static final String EVENT_TYPE = "IDENTITY_ATTRIBUTES_CHANGED";
+	private static final TenantId TENANT_ID = new TenantId(new TenantIdentifier("dev", "acme-solar").toString());
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+
+	@Mock
+	EventHandlerContext _context;
+
+	@Mock
+	TriggerRepo _triggerRepo;
+
+	@Mock
+	TriggerService _triggerService;
+
+	@Mock
+	SubscribedTriggerSet _subscribedTriggers;
+
+	@Mock
+	EtsFeatureStore _etsFeatureStore;
+
+	private EventSourceEventHandler _handler;
+	private Event _event;
+
+	@Before
+	public void setUp() {
+		_handler = new EventSourceEventHandler(_triggerRepo, _triggerService, _subscribedTriggers, _etsFeatureStore);
+
+		_event = spy(EventBuilder.withTypeAndContent(EVENT_TYPE, Collections.singletonMap("identity", "john.doe"))
+			.addHeader(EventHeaders.POD, "dev")
+			.addHeader(EventHeaders.ORG, "acme-solar")
+			.build());
+		when(_context.getEvent()).thenReturn(_event);
+		when(_context.getTopic()).thenReturn(Topic.parse(Topic.buildId("identity", "dev")));
+		when(_triggerRepo.findIdByEventSource(anyString(), eq(EVENT_TYPE))).thenReturn(Optional.of(TRIGGER_ID));
+	}
+
+	@Test
+	public void eventOfUnsubscribedTenantShouldNotBeParsed() {
+		when(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID)).thenReturn(false);
+
+		_handler.handleEvent(_context);
+
+		verify(_event, never()).getContent(any());
+		verify(_triggerService, never()).invokeTrigger(any());
+	}
+
+	@Test
+	public void eventOfDisabledTriggerShouldNotBeParsed() {
+		when(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID)).thenReturn(true);
+		when(_etsFeatureStore.isEnabledForTenant(TRIGGER_ID)).thenReturn(false);
+
+		_handler.handleEvent(_context);
+
+		verify(_event, never()).getContent(any());
+		verify(_triggerService, never()).invokeTrigger(any());
+	}
+
+	@Test
+	public void featureStoreFailureShouldBeReportedAndRethrown() {
+		when(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID)).thenReturn(true);
+		IllegalStateException failure = new IllegalStateException("feature store unavailable");
+		when(_etsFeatureStore.isEnabledForTenant(TRIGGER_ID)).thenThrow(failure);
+
+		try {
+			_handler.handleEvent(_context);
+			fail("feature store failure should be rethrown");
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+		}
+		verify(_triggerService, never()).invokeTrigger(any());
+	}
+
+	@Test
+	public void eventOfSubscribedTenantShouldBeInvoked() {
+		when(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID)).thenReturn(true);
+		when(_etsFeatureStore.isEnabledForTenant(TRIGGER_ID)).thenReturn(true);
+
+		_handler.handleEvent(_context);
+
+		ArgumentCaptor<InvokeTriggerCommand> cmd = ArgumentCaptor.forClass(InvokeTriggerCommand.class);
+		verify(_triggerService).invokeTrigger(cmd.capture());
+		assertEquals(TENANT_ID, cmd.getValue().getTenantId());
+		assertEquals(TRIGGER_ID, cmd.getValue().getTriggerId());
+		assertEquals("john.doe", ((Map)cmd.getValue().getInput()).get("identity"));
+	}
+}
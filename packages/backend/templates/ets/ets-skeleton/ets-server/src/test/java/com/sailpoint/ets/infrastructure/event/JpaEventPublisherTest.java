@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.sailpoint.atlas.ApplicationInfo;
+import com.sailpoint.atlas.boot.core.web.TenantIdentifier;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.event.TriggerInvokedEvent;
+import com.sailpoint.iris.client.Event;
+import com.sailpoint.iris.client.EventBuilder;
+import com.sailpoint.iris.client.EventHeaders;
+import com.sailpoint.iris.client.EventPublisher;
+import com.sailpoint.iris.client.Topic;
+import com.sailpoint.utilities.JsonUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link JpaEventPublisher}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JpaEventPublisherTest {
+
+	private static final String TOPIC = Topic.buildId("trigger", "dev");
+	private static final int PARTITION = 1;
+
+	@Mock
+	EventPublisher _irisEventPublisher;
+
+	@Mock
+	PersistedEventRepo _persistedEventRepo;
+
+	@Mock
+	JdbcTemplate _jdbcTemplate;
+
+	@Mock
+	ApplicationInfo _applicationInfo;
+
+	@Mock
+	TransactionTemplate _transactionTemplate;
+
+	@Mock
+	LocalDispatcher _localDispatcher;
+
+	@Mock
+	PlatformTransactionManager _transactionManager;
+
+	private JpaEventPublisher _publisher;
+
+	@Before
+	public void setUp() {
+		EtsProperties properties = new EtsProperties();
+		properties.setOutboxBatchSize(10);
+		properties.setOutboxMaxInFlight(2);
+		properties.setOutboxWorkers(4);
+		properties.setOutboxContentionRetryMillis(10);
+
+		lenient().when(_transactionTemplate.getTransactionManager()).thenReturn(_transactionManager);
+		_publisher = new JpaEventPublisher(_irisEventPublisher, _persistedEventRepo, _jdbcTemplate, _applicationInfo,
+			_transactionTemplate, properties, _localDispatcher);
+		_publisher.init();
+
+		lenient().when(_transactionTemplate.execute(any()))
+			.thenAnswer(invocation -> ((TransactionCallback<?>)invocation.getArgument(0)).doInTransaction(null));
+		lenient().when(_jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), any(), any()))
+			.thenReturn(true);
+	}
+
+	@Test
+	public void batchShouldBePublishedInOneTransaction() throws SQLException {
+		givenEvents(3, 1, 2);
+		when(_irisEventPublisher.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		assertEquals(3, _publisher.sendEventBatch(PARTITION, 0));
+
+		verify(_transactionTemplate, times(1)).execute(any());
+		verify(_irisEventPublisher, times(3)).publish(any(), any());
+	}
+
+	@Test
+	public void emptyTableShouldPublishNothing() throws SQLException {
+		givenEvents();
+
+		assertEquals(0, _publisher.sendEventBatch(PARTITION, 0));
+	}
+
+	@Test
+	public void bucketDrainedByAnotherPodShouldBeSkipped() {
+		when(_jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), any(), eq(PARTITION)))
+			.thenReturn(false);
+
+		assertEquals(JpaEventPublisher.CONTENDED, _publisher.sendEventBatch(PARTITION, 0));
+
+		verify(_jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(), any(), any(), any(), any());
+		verify(_irisEventPublisher, never()).publish(any(), any());
+	}
+
+	@Test
+	public void contendedPartitionShouldBeDrainedAgainShortly() throws SQLException {
+		lenient().when(_jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any(), any()))
+			.thenReturn(new ArrayList<>());
+		givenEvents(1);
+		when(_jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), any(), eq(PARTITION)))
+			.thenReturn(false, true);
+		when(_irisEventPublisher.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		_publisher.sendEvents();
+
+		// No further wake up comes in, the retry alone drains the partition once the other pod is done
+		verify(_irisEventPublisher, timeout(5000)).publish(any(), any());
+		verify(_jdbcTemplate, times(2))
+			.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), any(), eq(PARTITION));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void failedPublishShouldFailTheBatch() throws SQLException {
+		givenEvents(1, 2);
+		CompletableFuture<Object> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new IllegalStateException("kafka is down"));
+		when(_irisEventPublisher.publish(any(), any())).thenReturn(failed);
+
+		_publisher.sendEventBatch(PARTITION, 0);
+	}
+
+	@Test
+	public void drainedPartitionShouldBeTruncated() {
+		when(_jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+
+		_publisher.truncateDrainedPartition();
+
+		verify(_jdbcTemplate).execute(startsWith("TRUNCATE event_"));
+	}
+
+	@Test
+	public void partitionLockShouldBeWaitedForBriefly() {
+		when(_jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+
+		_publisher.truncateDrainedPartition();
+
+		verify(_jdbcTemplate).execute(startsWith("SET LOCAL lock_timeout"));
+		verify(_jdbcTemplate, never()).execute(contains("NOWAIT"));
+	}
+
+	@Test
+	public void partitionInUseShouldNotBeTruncated() {
+		doThrow(new CannotAcquireLockException("lock not available")).when(_jdbcTemplate).execute(startsWith("LOCK TABLE"));
+
+		_publisher.truncateDrainedPartition();
+
+		verify(_jdbcTemplate, times(3)).execute(startsWith("LOCK TABLE"));
+		verify(_jdbcTemplate, never()).execute(startsWith("TRUNCATE"));
+	}
+
+	@Test
+	public void lagShouldBeReportedFromAggregates() {
+		when(_persistedEventRepo.findOldestCreated()).thenReturn(Optional.empty());
+		when(_persistedEventRepo.countByTopic()).thenReturn(Collections.emptyList());
+
+		_publisher.scheduledSendEvents();
+
+		verify(_persistedEventRepo, never()).findAll();
+		verify(_persistedEventRepo).findOldestCreated();
+		verify(_persistedEventRepo).countByTopic();
+	}
+
+	@Test
+	public void persistedEventShouldNotBeMarkedAsLocallyDispatched() {
+		when(_localDispatcher.isEnabled()).thenReturn(true);
+		when(_persistedEventRepo.save(any())).thenAnswer(invocation -> {
+			ReflectionTestUtils.setField(invocation.getArgument(0), "id", 1L);
+			return invocation.getArgument(0);
+		});
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			_publisher.publish(TriggerInvokedEvent.builder()
+				.tenantId(new TenantIdentifier("dev", "acme-solar").toString())
+				.triggerId("idn:access-request-submitted")
+				.invocationId("0612a993-a2f8-4365-9dcc-4b5d620a64f0")
+				.build());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+			TransactionSynchronizationManager.unbindResourceIfPossible(_publisher);
+		}
+
+		ArgumentCaptor<PersistedEvent> persisted = ArgumentCaptor.forClass(PersistedEvent.class);
+		verify(_persistedEventRepo).save(persisted.capture());
+		Event event = JsonUtil.parse(Event.class, EventCodec.GZIP.decode(null, persisted.getValue().getEventData()));
+		Map<String, String> headers = event.getHeaders().orElse(Collections.emptyMap());
+		assertEquals("acme-solar", headers.get(EventHeaders.ORG));
+		assertFalse(headers.containsKey(TriggerEventHandler.LOCALLY_DISPATCHED_HEADER));
+	}
+
+	@Test
+	public void bucketLockShouldBeFreeWhileDispatchingLocally() {
+		// The bucket advisory lock is transaction scoped, it is free as long as no transaction is open
+		AtomicInteger openTransactions = new AtomicInteger();
+		AtomicInteger openWhileDispatching = new AtomicInteger(-1);
+		when(_transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+			openTransactions.incrementAndGet();
+			return null;
+		});
+		doAnswer(invocation -> openTransactions.decrementAndGet()).when(_transactionManager).commit(any());
+		when(_localDispatcher.isEnabled()).thenReturn(true);
+		when(_localDispatcher.tryExecute(any())).thenAnswer(invocation -> {
+			((Runnable)invocation.getArgument(0)).run();
+			return true;
+		});
+		doAnswer(invocation -> {
+			openWhileDispatching.set(openTransactions.get());
+			return null;
+		}).when(_localDispatcher).dispatch(any());
+		when(_persistedEventRepo.save(any())).thenAnswer(invocation -> {
+			ReflectionTestUtils.setField(invocation.getArgument(0), "id", 1L);
+			return invocation.getArgument(0);
+		});
+		when(_jdbcTemplate.update(startsWith("UPDATE event SET claimed = now()"), eq(1L))).thenReturn(1);
+		when(_jdbcTemplate.update(startsWith("DELETE FROM event"), eq(1L))).thenReturn(1);
+		when(_irisEventPublisher.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			_publisher.publish(TriggerInvokedEvent.builder()
+				.tenantId(new TenantIdentifier("dev", "acme-solar").toString())
+				.triggerId("idn:access-request-submitted")
+				.invocationId("0612a993-a2f8-4365-9dcc-4b5d620a64f0")
+				.build());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+			TransactionSynchronizationManager.unbindResourceIfPossible(_publisher);
+		}
+
+		verify(_jdbcTemplate).queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), any(), any());
+		verify(_localDispatcher).dispatch(any());
+		assertEquals(0, openWhileDispatching.get());
+
+		ArgumentCaptor<Event> published = ArgumentCaptor.forClass(Event.class);
+		verify(_irisEventPublisher).publish(published.capture(), any());
+		assertEquals("true", published.getValue().getHeaders().orElse(Collections.emptyMap())
+			.get(TriggerEventHandler.LOCALLY_DISPATCHED_HEADER));
+		assertEquals(0, openTransactions.get());
+	}
+
+	@After
+	public void cleanup() {
+		_publisher.shutdown();
+	}
+
+	private void givenEvents(long... ids) throws SQLException {
+		String json = EventBuilder.withTypeAndContent("TriggerInvokedEvent", Collections.emptyMap()).build().toJson();
+
+		List<Object> rows = new ArrayList<>();
+		for (long id : ids) {
+			ResultSet rs = mock(ResultSet.class);
+			when(rs.getLong(1)).thenReturn(id);
+			when(rs.getString(2)).thenReturn(TOPIC);
+			when(rs.getString(3)).thenReturn(json);
+			when(rs.getTimestamp(4)).thenReturn(new Timestamp(System.currentTimeMillis()));
+			rows.add(rs);
+		}
+
+		when(_jdbcTemplate.query(anyString(), any(RowMapper.class), eq(4), eq(PARTITION), eq(0L), eq(120000L),
+			eq(10))).thenAnswer(invocation -> {
+			RowMapper<?> mapper = invocation.getArgument(1);
+			List<Object> events = new ArrayList<>();
+			for (Object rs : rows) {
+				events.add(mapper.mapRow((ResultSet)rs, events.size()));
+			}
+			return events;
+		}).thenReturn(new ArrayList<>());
+	}
+}
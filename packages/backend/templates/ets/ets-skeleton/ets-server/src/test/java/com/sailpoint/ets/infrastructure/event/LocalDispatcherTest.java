@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.event;
+
+import com.sailpoint.ets.EtsProperties;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LocalDispatcher}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LocalDispatcherTest {
+
+	@Mock
+	TriggerEventHandler _triggerEventHandler;
+
+	private LocalDispatcher _localDispatcher;
+
+	@Test
+	public void disabledDispatcherShouldRejectEverything() {
+		_localDispatcher = new LocalDispatcher(_triggerEventHandler, new EtsProperties());
+
+		assertFalse(_localDispatcher.isEnabled());
+		assertFalse(_localDispatcher.tryExecute(() -> {}));
+	}
+
+	@Test
+	public void saturatedDispatcherShouldReject() {
+		EtsProperties properties = new EtsProperties();
+		properties.setLocalDispatchEnabled(true);
+		properties.setLocalDispatchThreads(1);
+		properties.setLocalDispatchQueueSize(1);
+		_localDispatcher = new LocalDispatcher(_triggerEventHandler, properties);
+
+		CountDownLatch latch = new CountDownLatch(1);
+		Runnable blocked = () -> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		assertTrue(_localDispatcher.tryExecute(blocked));
+		assertTrue(_localDispatcher.tryExecute(blocked));
+		assertFalse(_localDispatcher.tryExecute(blocked));
+		latch.countDown();
+	}
+
+	@After
+	public void cleanup() {
+		_localDispatcher.shutdown();
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.google.common.collect.ImmutableMap;
+import com.sailpoint.atlas.util.AwsEncryptionServiceUtil;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.command.DispatchTemplate;
+import com.sailpoint.ets.domain.subscription.ScriptLanguageType;
+import com.sailpoint.ets.domain.subscription.SubscriptionType;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.sailpoint.ets.domain.trigger.TriggerType;
+import com.sailpoint.ets.infrastructure.util.ScriptConfigConverter;
+import com.sailpoint.ets.infrastructure.web.dto.ResponseMode;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DecryptedSubscriptionCache}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DecryptedSubscriptionCacheTest {
+
+	private static final TenantId TENANT_ID = new TenantId("acme-solar");
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+	private static final String SUBSCRIPTION_ID = UUID.randomUUID().toString();
+	private static final String SCRIPT = Base64.encodeBase64String("dummyJavascript".getBytes());
+	private static final Map<String, Object> HTTP_CONFIG = ImmutableMap.of("url", "http://sample-url.com",
+		"httpAuthenticationType", "BEARER_TOKEN",
+		"bearerTokenAuthConfig", ImmutableMap.of("bearerToken", Base64.encodeBase64String("eyJhbGciOi".getBytes())));
+	private static final Map<String, Object> SCRIPT_CONFIG = ImmutableMap.of(ScriptConfigConverter.LANGUAGE,
+		ScriptLanguageType.JAVASCRIPT.name(), ScriptConfigConverter.RESPONSE_MODE, ResponseMode.SYNC.name());
+
+	@Mock
+	AwsEncryptionServiceUtil _awsEncryptionServiceUtil;
+
+	private EtsProperties _properties;
+	private DecryptedSubscriptionCache _cache;
+
+	@Before
+	public void setUp() {
+		_properties = new EtsProperties();
+		_properties.setLambdaNamePrefix("ets-");
+		_cache = new DecryptedSubscriptionCache(_awsEncryptionServiceUtil, _properties);
+
+		when(_awsEncryptionServiceUtil.decryptDataWithoutCheckKey(any(), any()))
+			.thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	public void httpTemplateShouldBeBuiltOncePerVersion() {
+		DispatchTemplate template = getHttpTemplate(1L);
+		assertSame(template, getHttpTemplate(1L));
+
+		assertEquals("Bearer eyJhbGciOi", template.getAuthorization());
+		assertEquals("ets-http", template.getFunctionName());
+		verify(_awsEncryptionServiceUtil, times(1)).decryptDataWithoutCheckKey(any(), any());
+
+		getHttpTemplate(2L);
+		verify(_awsEncryptionServiceUtil, times(2)).decryptDataWithoutCheckKey(any(), any());
+	}
+
+	@Test
+	public void unversionedScriptTemplateShouldNotBeCached() {
+		assertEquals(Base64.encodeBase64String("dummyJavascript".getBytes()), getScriptTemplate(null).getScriptCode());
+		getScriptTemplate(null);
+
+		verify(_awsEncryptionServiceUtil, times(2)).decryptDataWithoutCheckKey(any(), any());
+	}
+
+	@Test
+	public void invalidateShouldDropTemplatesOfTrigger() {
+		getScriptTemplate(1L);
+
+		_cache.invalidate(TENANT_ID, new TriggerId("idn:identity-created"));
+		getScriptTemplate(1L);
+		verify(_awsEncryptionServiceUtil, times(1)).decryptDataWithoutCheckKey(any(), any());
+
+		_cache.invalidate(TENANT_ID, TRIGGER_ID);
+		getScriptTemplate(1L);
+		verify(_awsEncryptionServiceUtil, times(2)).decryptDataWithoutCheckKey(any(), any());
+
+		_cache.invalidate(TENANT_ID);
+		getScriptTemplate(1L);
+		verify(_awsEncryptionServiceUtil, times(3)).decryptDataWithoutCheckKey(any(), any());
+	}
+
+	private DispatchTemplate getHttpTemplate(Long version) {
+		return _cache.getDispatchTemplate(TENANT_ID, TRIGGER_ID.toString(), SUBSCRIPTION_ID, SubscriptionType.HTTP,
+			version, () -> DispatchTemplate.forHttp(_properties, TRIGGER_ID.toString(), TriggerType.REQUEST_RESPONSE,
+				_cache.decryptHttpConfig(SUBSCRIPTION_ID, HTTP_CONFIG)));
+	}
+
+	private DispatchTemplate getScriptTemplate(Long version) {
+		return _cache.getDispatchTemplate(TENANT_ID, TRIGGER_ID.toString(), SUBSCRIPTION_ID, SubscriptionType.SCRIPT,
+			version, () -> DispatchTemplate.forScript(_properties, TRIGGER_ID.toString(), TriggerType.FIRE_AND_FORGET,
+				SCRIPT_CONFIG, _cache.decryptScriptSource(SUBSCRIPTION_ID, SCRIPT)));
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.PathNotFoundException;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import com.sailpoint.utilities.JsonUtil;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link JsonPathSubscriptionFilterEngine}
+ */
+public class JsonPathSubscriptionFilterEngineTest {
+
+	private static final TenantId TENANT_ID = new TenantId("acme-solar");
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+
+	private final SubscriptionFilterEngine _filterEngine = new JsonPathSubscriptionFilterEngine();
+
+	private final Map<String, Object> _input = JsonUtil.parse(Map.class, "{\"identity\": {\"id\": \"ee769173319b41d19ccec6cea52f237b\", \"name\": \"john.doe\"}, " +
+		"\"action\": \"Lifecycle State Change\", \"empty\": [], " +
+		"\"changes\": [{\"attribute\": \"department\", \"oldValue\": \"sales\", \"newValue\": \"marketing\"}, " +
+		"{\"attribute\": \"manager\", \"newValue\": {\"id\": \"ee769173319b41d19ccec6c235423237b\", \"name\": \"nice.guy\"}}]}");
+
+	@Test
+	public void isValid() {
+		assertTrue(_filterEngine.isValid("$.changes[?(@.attribute == 'department')]"));
+		assertFalse(_filterEngine.isValid("$.changes[?(@.attribute == 'department'"));
+		assertFalse(_filterEngine.isValid(""));
+	}
+
+	@Test
+	public void matches() {
+		assertTrue(_filterEngine.matches("$.identity.name", _input));
+		assertTrue(_filterEngine.matches("$.changes[?(@.attribute == 'department')]", _input));
+		assertFalse(_filterEngine.matches("$.changes[?(@.attribute == 'manager')]", _input));
+	}
+
+	@Test
+	public void subscriptionWithoutFilterShouldMatch() {
+		Subscription subscription = Subscription.builder()
+			.id(UUID.randomUUID())
+			.build();
+
+		assertTrue(prepare(subscription).matches(subscription));
+	}
+
+	@Test
+	public void subscriptionFilterShouldBeCompiledOncePerVersion() {
+		Subscription subscription = Subscription.builder()
+			.id(UUID.randomUUID())
+			.filter("$.changes[?(@.attribute == 'department')]")
+			.build();
+
+		assertTrue(prepare(subscription).matches(subscription));
+
+		// Same version, the compiled filter is reused
+		subscription.setFilter("$.changes[?(@.attribute == 'custom')]");
+		assertTrue(prepare(subscription).matches(subscription));
+
+		// New version, the filter is compiled again
+		subscription.setVersion(subscription.getVersion() + 1);
+		assertFalse(prepare(subscription).matches(subscription));
+	}
+
+	@Test(expected = InvalidPathException.class)
+	public void invalidSubscriptionFilterShouldFailToMatch() {
+		Subscription subscription = Subscription.builder()
+			.id(UUID.randomUUID())
+			.filter("$.changes[?(@.attribute == 'department'")
+			.build();
+
+		prepare(subscription).matches(subscription);
+	}
+
+	@Test
+	public void indexShouldMatchLikeJsonPath() {
+		List<String> filters = Arrays.asList(
+			"$.identity",
+			"$.identity.name",
+			"$.identity.missing",
+			"$.changes",
+			"$.empty",
+			"$.changes[?(@.attribute == 'department')]",
+			"$.changes[?(@.attribute == \"department\")]",
+			"$.changes[?(@.attribute == 'manager')]",
+			"$.changes[?(@.newValue.name == 'nice.guy')]",
+			"$.identity[?(@.name == 'john.doe')]",
+			"$[?(@.action == 'Lifecycle State Change')] ",
+			"$.changes[?(@.attribute =~ /^depart.*$/i)]",
+			"$..newValue");
+		List<Subscription> subscriptions = filters.stream()
+			.map(filter -> Subscription.builder().id(UUID.randomUUID()).filter(filter).build())
+			.collect(Collectors.toList());
+
+		SubscriptionFilterEngine.FilterInput filterInput = _filterEngine.prepare(TENANT_ID, TRIGGER_ID, subscriptions, _input);
+
+		subscriptions.forEach(subscription -> assertEquals(subscription.getFilter(),
+			jsonPathMatches(subscription.getFilter()), filterInput.matches(subscription)));
+	}
+
+	@Test
+	public void indexShouldMatchNumberAndBooleanFieldsLikeJsonPath() {
+		Map<String, Object> input = JsonUtil.parse(Map.class, "{\"changes\": [" +
+			"{\"attribute\": \"level\", \"newValue\": 3, \"oldValue\": 2.50, \"active\": true, \"code\": \"007\"}, " +
+			"{\"attribute\": \"enabled\", \"newValue\": false, \"oldValue\": null}]}");
+		List<String> filters = Arrays.asList(
+			"$.changes[?(@.newValue == '3')]",
+			"$.changes[?(@.newValue == '3.0')]",
+			"$.changes[?(@.newValue == '3e0')]",
+			"$.changes[?(@.newValue == '4')]",
+			"$.changes[?(@.oldValue == '2.5')]",
+			"$.changes[?(@.newValue == 'three')]",
+			"$.changes[?(@.active == 'true')]",
+			"$.changes[?(@.newValue == 'false')]",
+			"$.changes[?(@.oldValue == 'null')]",
+			"$.changes[?(@.code == '007')]",
+			"$.changes[?(@.code == '7')]");
+		List<Subscription> subscriptions = filters.stream()
+			.map(filter -> Subscription.builder().id(UUID.randomUUID()).filter(filter).build())
+			.collect(Collectors.toList());
+
+		SubscriptionFilterEngine.FilterInput filterInput = _filterEngine.prepare(TENANT_ID, TRIGGER_ID, subscriptions, input);
+
+		subscriptions.forEach(subscription -> assertEquals(subscription.getFilter(),
+			jsonPathMatches(subscription.getFilter(), input), filterInput.matches(subscription)));
+		assertTrue(filterInput.matches(subscriptions.get(1)));
+		assertFalse(filterInput.matches(subscriptions.get(6)));
+	}
+
+	private SubscriptionFilterEngine.FilterInput prepare(Subscription subscription) {
+		return _filterEngine.prepare(TENANT_ID, TRIGGER_ID, Collections.singletonList(subscription), _input);
+	}
+
+	private boolean jsonPathMatches(String filter) {
+		return jsonPathMatches(filter, _input);
+	}
+
+	private boolean jsonPathMatches(String filter, Map<String, Object> input) {
+		try {
+			return _filterEngine.matches(filter, input);
+		} catch (PathNotFoundException e) {
+			return false;
+		}
+	}
+}
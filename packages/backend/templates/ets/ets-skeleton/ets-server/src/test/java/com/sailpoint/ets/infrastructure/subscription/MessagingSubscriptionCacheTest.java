@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.sailpoint.atlas.boot.messaging.idn.IdnMessageScope;
+import com.sailpoint.atlas.boot.messaging.service.MessageClientService;
+import com.sailpoint.atlas.messaging.server.MessageHandlerContext;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.Subscription;
+import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link MessagingSubscriptionCache}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MessagingSubscriptionCacheTest {
+
+	private static final TenantId TENANT_ID = new TenantId("acme-solar");
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+	private static final TriggerId OTHER_TRIGGER_ID = new TriggerId("idn:identity-created");
+
+	@Mock
+	SubscriptionRepo _subscriptionRepo;
+
+	@Mock
+	MessageClientService _messageClientService;
+
+	@Mock
+	MessageHandlerContext _messageHandlerContext;
+
+	@Mock
+	SubscribedTriggerSet _subscribedTriggers;
+
+	@Mock
+	DecryptedSubscriptionCache _decryptedSubscriptions;
+
+	private MessagingSubscriptionCache _subscriptionCache;
+
+	@Before
+	public void setUp() {
+		_subscriptionCache = new MessagingSubscriptionCache(_subscriptionRepo, _messageClientService, _subscribedTriggers,
+			_decryptedSubscriptions, new EtsProperties());
+
+		lenient().when(_subscriptionRepo.findAllByTenantIdAndTriggerId(any(), any()))
+			.thenAnswer(invocation -> Stream.of(Subscription.builder().id(UUID.randomUUID()).build()));
+	}
+
+	@Test
+	public void subscriptionsShouldBeLoadedOnce() {
+		List<Subscription> subscriptions = _subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+
+		assertEquals(subscriptions, _subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID));
+		verify(_subscriptionRepo, times(1)).findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+	}
+
+	@Test
+	public void invalidateShouldReloadAndBroadcast() {
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+
+		_subscriptionCache.invalidate(TENANT_ID, TRIGGER_ID);
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+
+		verify(_subscriptionRepo, times(2)).findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+		verify(_messageClientService).submitJob(eq(IdnMessageScope.ETS), any(), any());
+		verify(_subscribedTriggers).refresh(TENANT_ID, TRIGGER_ID);
+		verify(_decryptedSubscriptions).invalidate(TENANT_ID, TRIGGER_ID);
+	}
+
+	@Test
+	public void subscriptionByIdShouldBeReloadedForNewerVersion() {
+		UUID id = UUID.randomUUID();
+		Subscription v1 = Subscription.builder().id(id).tenantId(TENANT_ID).triggerId(TRIGGER_ID).version(1).build();
+		Subscription v2 = Subscription.builder().id(id).tenantId(TENANT_ID).triggerId(TRIGGER_ID).version(2).build();
+		when(_subscriptionRepo.findByTenantIdAndId(TENANT_ID, id)).thenReturn(Optional.of(v1), Optional.of(v2));
+
+		assertSame(v1, _subscriptionCache.findByTenantIdAndId(TENANT_ID, id, 1).get());
+		assertSame(v1, _subscriptionCache.findByTenantIdAndId(TENANT_ID, id, 0).get());
+		assertSame(v2, _subscriptionCache.findByTenantIdAndId(TENANT_ID, id, 2).get());
+
+		verify(_subscriptionRepo, times(2)).findByTenantIdAndId(TENANT_ID, id);
+	}
+
+	@Test
+	public void invalidationMessageForTenantShouldInvalidateAllTriggers() {
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, OTHER_TRIGGER_ID);
+
+		when(_messageHandlerContext.getMessageContent(MessagingSubscriptionCache.CacheKey.class))
+			.thenReturn(new MessagingSubscriptionCache.CacheKey(TENANT_ID.toString(), null));
+		_subscriptionCache.handleInvalidation(_messageHandlerContext);
+
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+		_subscriptionCache.findAllByTenantIdAndTriggerId(TENANT_ID, OTHER_TRIGGER_ID);
+
+		verify(_subscriptionRepo, times(2)).findAllByTenantIdAndTriggerId(TENANT_ID, TRIGGER_ID);
+		verify(_subscriptionRepo, times(2)).findAllByTenantIdAndTriggerId(TENANT_ID, OTHER_TRIGGER_ID);
+		verify(_subscribedTriggers).refresh(TENANT_ID);
+		verify(_decryptedSubscriptions).invalidate(TENANT_ID);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.subscription;
+
+import com.sailpoint.ets.domain.TenantId;
+import com.sailpoint.ets.domain.subscription.SubscribedTrigger;
+import com.sailpoint.ets.domain.subscription.SubscriptionRepo;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SubscribedTriggerSet}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SubscribedTriggerSetTest {
+
+	private static final TenantId TENANT_ID = new TenantId("acme-solar");
+	private static final TenantId OTHER_TENANT_ID = new TenantId("acme-lunar");
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+	private static final TriggerId OTHER_TRIGGER_ID = new TriggerId("idn:identity-created");
+
+	@Mock
+	SubscriptionRepo _subscriptionRepo;
+
+	private SubscribedTriggerSet _subscribedTriggers;
+
+	@Before
+	public void setUp() {
+		when(_subscriptionRepo.findAllSubscribedTriggers()).thenReturn(Arrays.asList(
+			new SubscribedTrigger(TENANT_ID, TRIGGER_ID),
+			new SubscribedTrigger(OTHER_TENANT_ID, TRIGGER_ID)));
+
+		_subscribedTriggers = new SubscribedTriggerSet(_subscriptionRepo);
+		_subscribedTriggers.init();
+	}
+
+	@Test
+	public void isSubscribed() {
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID));
+		assertFalse(_subscribedTriggers.isSubscribed(TENANT_ID, OTHER_TRIGGER_ID));
+		assertFalse(_subscribedTriggers.isSubscribed(new TenantId("acme-ocean"), TRIGGER_ID));
+	}
+
+	@Test
+	public void refreshTrigger() {
+		when(_subscriptionRepo.existsByTenantIdAndTriggerIdAndEnabledTrue(TENANT_ID, OTHER_TRIGGER_ID)).thenReturn(true);
+		_subscribedTriggers.refresh(TENANT_ID, OTHER_TRIGGER_ID);
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, OTHER_TRIGGER_ID));
+
+		when(_subscriptionRepo.existsByTenantIdAndTriggerIdAndEnabledTrue(TENANT_ID, TRIGGER_ID)).thenReturn(false);
+		_subscribedTriggers.refresh(TENANT_ID, TRIGGER_ID);
+		assertFalse(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID));
+	}
+
+	@Test
+	public void refreshTenant() {
+		when(_subscriptionRepo.findAllSubscribedTriggersByTenantId(TENANT_ID))
+			.thenReturn(Collections.singletonList(new SubscribedTrigger(TENANT_ID, OTHER_TRIGGER_ID)));
+
+		_subscribedTriggers.refresh(TENANT_ID);
+
+		assertFalse(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID));
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, OTHER_TRIGGER_ID));
+		assertTrue(_subscribedTriggers.isSubscribed(OTHER_TENANT_ID, TRIGGER_ID));
+	}
+
+	@Test
+	public void reloadShouldPickUpMissedChanges() {
+		when(_subscriptionRepo.findAllSubscribedTriggers()).thenReturn(Arrays.asList(
+			new SubscribedTrigger(TENANT_ID, OTHER_TRIGGER_ID),
+			new SubscribedTrigger(new TenantId("acme-ocean"), TRIGGER_ID)));
+
+		_subscribedTriggers.reload();
+
+		assertTrue(_subscribedTriggers.isSubscribed(new TenantId("acme-ocean"), TRIGGER_ID));
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, OTHER_TRIGGER_ID));
+		assertFalse(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID));
+		assertFalse(_subscribedTriggers.isSubscribed(OTHER_TENANT_ID, TRIGGER_ID));
+	}
+
+	@Test
+	public void reloadShouldNotRemoveTriggersRefreshedMeanwhile() {
+		when(_subscriptionRepo.existsByTenantIdAndTriggerIdAndEnabledTrue(TENANT_ID, OTHER_TRIGGER_ID)).thenReturn(true);
+		// The subscription is created while the reload loads its older snapshot
+		when(_subscriptionRepo.findAllSubscribedTriggers()).thenAnswer(invocation -> {
+			_subscribedTriggers.refresh(TENANT_ID, OTHER_TRIGGER_ID);
+			return Collections.singletonList(new SubscribedTrigger(TENANT_ID, TRIGGER_ID));
+		});
+
+		_subscribedTriggers.reload();
+
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, OTHER_TRIGGER_ID));
+		assertTrue(_subscribedTriggers.isSubscribed(TENANT_ID, TRIGGER_ID));
+		assertFalse(_subscribedTriggers.isSubscribed(OTHER_TENANT_ID, TRIGGER_ID));
+	}
+}
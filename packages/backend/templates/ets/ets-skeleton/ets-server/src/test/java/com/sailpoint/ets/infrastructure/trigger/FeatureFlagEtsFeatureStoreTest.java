@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022 SailPoint Technologies, Inc. All rights reserved.
+ */
+package com.sailpoint.ets.infrastructure.trigger;
+
+import com.sailpoint.atlas.RequestContext;
+import com.sailpoint.atlas.featureflag.FeatureFlagService;
+import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.trigger.EtsFeatureStore;
+import com.sailpoint.ets.domain.trigger.TriggerId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link FeatureFlagEtsFeatureStore}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureFlagEtsFeatureStoreTest {
+
+	private static final TriggerId TRIGGER_ID = new TriggerId("idn:identity-attributes-changed");
+	private static final String FEATURE_KEY = EtsFeatureStore.getFeatureKey(TRIGGER_ID);
+
+	@Mock
+	FeatureFlagService _featureFlagService;
+
+	private FeatureFlagEtsFeatureStore _featureStore;
+
+	@Before
+	public void setUp() {
+		setTenant("acme-solar");
+		_featureStore = new FeatureFlagEtsFeatureStore(_featureFlagService, new EtsProperties());
+	}
+
+	@After
+	public void cleanup() {
+		RequestContext.set(null);
+	}
+
+	@Test
+	public void featureFlagShouldBeCachedPerTenant() {
+		when(_featureFlagService.getBoolean(FEATURE_KEY, false)).thenReturn(true, false);
+
+		assertTrue(_featureStore.isEnabledForTenant(TRIGGER_ID));
+		assertTrue(_featureStore.isEnabledForTenant(TRIGGER_ID));
+
+		setTenant("acme-lunar");
+		assertFalse(_featureStore.isEnabledForTenant(TRIGGER_ID));
+
+		verify(_featureFlagService, times(2)).getBoolean(FEATURE_KEY, false);
+	}
+
+	@Test
+	public void refreshShouldReloadFeatureFlag() {
+		when(_featureFlagService.getBoolean(FEATURE_KEY, false)).thenReturn(false, true);
+
+		assertFalse(_featureStore.isEnabledForTenant(TRIGGER_ID));
+		_featureStore.refresh();
+		assertTrue(_featureStore.isEnabledForTenant(TRIGGER_ID));
+	}
+
+	private void setTenant(String org) {
+		RequestContext requestContext = new RequestContext();
+		requestContext.setOrg(org);
+		requestContext.setPod("dev");
+		RequestContext.set(requestContext);
+	}
+}
@@ -5,7 +5,9 @@ package com.sailpoint.ets.infrastructure.trigger;
 
 import com.sailpoint.utilities.JsonUtil;
 import com.sailpoint.ets.EtsProperties;
+import com.sailpoint.ets.domain.trigger.AvroSchema;
 import com.sailpoint.ets.domain.trigger.EventSource;
+import com.sailpoint.ets.domain.trigger.TriggerId;
 import com.sailpoint.ets.domain.trigger.TriggerType;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,6 +55,19 @@ public class JsonTriggerRepoTest {
 	}
 
 
+	@Test
+	public void JsonTriggerRepoAvroTest() throws IOException {
+		EtsProperties etsProperties = new EtsProperties();
+		etsProperties.setAvroTriggersEnabled(true);
+
+		JsonTriggerRepo triggerRepo = new JsonTriggerRepo(etsProperties);
+
+		File jsonDir = new ClassPathResource(JsonTriggerRepo.TRIGGER_SCHEMA_PATH).getFile();
+		Assert.assertEquals(jsonDir.listFiles().length, triggerRepo.findAll().count());
+		Assert.assertTrue(triggerRepo.findById(new TriggerId("idn:account-aggregation-completed")).get()
+			.getInputSchemaObject() instanceof AvroSchema);
+	}
+
 	@Test
 	public void JsonTriggerRepoNoTypeDefineTest() {
 		EtsProperties etsProperties = new EtsProperties();
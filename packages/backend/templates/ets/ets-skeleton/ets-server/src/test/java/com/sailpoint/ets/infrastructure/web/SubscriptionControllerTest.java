@@ -3,11 +3,14 @@
  */
 package com.sailpoint.ets.infrastructure.web;
 
+import com.sailpoint.ets.domain.subscription.SubscriptionFilterEngine;
+import com.sailpoint.ets.infrastructure.subscription.JsonPathSubscriptionFilterEngine;
 import com.sailpoint.ets.infrastructure.web.dto.SubscriptionFilterValidationDto;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Collections;
@@ -19,6 +22,9 @@ import java.util.Objects;
 @RunWith(MockitoJUnitRunner.class)
 public class SubscriptionControllerTest {
 
+	@Spy
+	private SubscriptionFilterEngine _filterEngine = new JsonPathSubscriptionFilterEngine();
+
 	@InjectMocks
 	private SubscriptionController _subscriptionController;
 